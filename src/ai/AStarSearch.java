@@ -0,0 +1,112 @@
+package ai;
+
+import java.util.Arrays;
+
+import ability.Direction;
+/**
+ * Class that finds shortest paths on a GridView with A* search and the Manhattan distance as heuristic.
+ * The open list is a binary heap of cell indices with lazy deletion: a cell which gets a better cost
+ * is pushed again and the old copy is skipped when it is popped.
+ * Costs and closed cells are stamped with the search number, so nothing is cleared per call.
+ *
+ */
+public class AStarSearch implements PathFinder{
+	private final CellHeap open = new CellHeap();
+	private int[] costs = new int[0];
+	private int[] seen = new int[0];
+	private int[] closed = new int[0];
+	private byte[] cameFrom = new byte[0];
+	private final int[] offsets = new int[4];
+	private int search=0;
+	private int expanded=0;
+	private int stride;
+
+	@Override
+	public boolean findPath(GridView map, int start, int goal, Path path) {
+		path.clear();
+		prepare(map);
+		open.clear();
+		expanded=0;
+		seen[start]=search;
+		costs[start]=0;
+		open.push(start, heuristic(start, goal));
+		while(!open.isEmpty()) {
+			int current = open.pop();
+			if(closed[current]==search) {
+				continue;
+			}
+			closed[current]=search;
+			expanded++;
+			if(current==goal) {
+				writePath(start, goal, path);
+				return true;
+			}
+			int cost = costs[current]+1;
+			for(int direction=0;direction<4;direction++) {
+				int next = current+offsets[direction];
+				if(next!=goal && map.getCellType(next)!=GridView.EMPTY) {
+					continue;
+				}
+				if(closed[next]==search || (seen[next]==search && costs[next]<=cost)) {
+					continue;
+				}
+				seen[next]=search;
+				costs[next]=cost;
+				cameFrom[next]=(byte)direction;
+				open.push(next, cost+heuristic(next, goal));
+			}
+		}
+		return false;
+	}
+	@Override
+	public int getExpandedNodes() {
+		return expanded;
+	}
+	/**
+	 * Manhattan distance between two cells.
+	 * @param from index of the first cell
+	 * @param to index of the second cell
+	 * @return the distance
+	 */
+	private int heuristic(int from, int to) {
+		return Math.abs(from%stride-to%stride)+Math.abs(from/stride-to/stride);
+	}
+	/**
+	 * Makes the buffers ready for a new search on a map.
+	 * @param map the map will be searched
+	 */
+	private void prepare(GridView map) {
+		stride = map.getStride();
+		int length = stride*(map.getGridHeight()+2);
+		if(seen.length<length) {
+			costs = new int[length];
+			seen = new int[length];
+			closed = new int[length];
+			cameFrom = new byte[length];
+			search=0;
+		}
+		if(search==Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			Arrays.fill(closed, 0);
+			search=0;
+		}
+		search++;
+		offsets[Direction.LEFT.ordinal()]=-1;
+		offsets[Direction.RIGHT.ordinal()]=1;
+		offsets[Direction.UP.ordinal()]=-stride;
+		offsets[Direction.DOWN.ordinal()]=stride;
+	}
+	/**
+	 * Walks back from the goal to the start and writes the directions to the path.
+	 * @param start index of the start cell
+	 * @param goal index of the goal cell
+	 * @param path the path to be filled
+	 */
+	private void writePath(int start, int goal, Path path) {
+		int length = costs[goal];
+		path.reset(length);
+		for(int current=goal;current!=start;current-=offsets[cameFrom[current]]) {
+			path.set(--length, cameFrom[current], current);
+		}
+	}
+}
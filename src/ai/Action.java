@@ -3,6 +3,8 @@ package ai;
 import ability.Direction;
 /**
  * Class representing possible actions for snakes in the game.
+ * Actions are immutable, so there is one shared instance for every type and direction:
+ * Action.of(...) returns these instances and choosing an action does not allocate anything.
  *
  */
 public class Action {
@@ -17,6 +19,23 @@ public class Action {
         STAY,
     }
 
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Shared actions by type and direction, the last column is for actions without a direction
+    private static final Action[][] INTERNED = new Action[Type.values().length][DIRECTIONS.length + 1];
+
+    static {
+        for (Type type : Type.values()) {
+            if (type == Type.STAY || type == Type.REPRODUCE) {
+                INTERNED[type.ordinal()][DIRECTIONS.length] = new Action(type);
+            } else {
+                for (Direction direction : DIRECTIONS) {
+                    INTERNED[type.ordinal()][direction.ordinal()] = new Action(type, direction);
+                }
+                INTERNED[type.ordinal()][DIRECTIONS.length] = new Action(type, (Direction) null);
+            }
+        }
+    }
+
     private final Type type;
     private final Direction direction;
 
@@ -49,6 +68,35 @@ public class Action {
         this.direction = direction;
     }
 
+    /**
+     * Returns the shared action without direction
+     * @throws IllegalArgumentException in case the action type requires a direction
+     * @param type action type
+     * @return the action
+     */
+    public static Action of(Type type) {
+        if (type == Type.MOVE || type == Type.EAT) {
+            throw new IllegalArgumentException("You cannot create an action "
+                    + "of type " + type + " without a direction");
+        }
+        return INTERNED[type.ordinal()][DIRECTIONS.length];
+    }
+
+    /**
+     * Returns the shared action with direction
+     * @throws IllegalArgumentException in case the action type must not have a direction
+     * @param type action type
+     * @param direction direction
+     * @return the action
+     */
+    public static Action of(Type type, Direction direction) {
+        if (type == Type.STAY|| type == Type.REPRODUCE) {
+            throw new IllegalArgumentException("Action of type "
+                    + type + " should be created without a direction");
+        }
+        return INTERNED[type.ordinal()][direction == null ? DIRECTIONS.length : direction.ordinal()];
+    }
+
     /**
      * Getter for the type of the action
      * @return action type
@@ -0,0 +1,161 @@
+package ai;
+
+import java.util.Arrays;
+
+import ability.Direction;
+/**
+ * Class that finds shortest paths on a GridView with bidirectional breadth first search.
+ * One search starts from the snake and one from the goal, the side with the smaller frontier expands one whole level at a time.
+ * When the searches meet, the level is finished and the shortest meeting is used.
+ * Like BreadthFirstSearch, all buffers are kept between calls and the cells are stamped with the search number.
+ *
+ */
+public class BidirectionalSearch implements PathFinder{
+	private int[] forwardQueue = new int[0];
+	private int[] backwardQueue = new int[0];
+	private int[] forwardSeen = new int[0];
+	private int[] backwardSeen = new int[0];
+	private int[] forwardDistances = new int[0];
+	private int[] backwardDistances = new int[0];
+	private byte[] forwardCameFrom = new byte[0];
+	private byte[] backwardCameFrom = new byte[0];
+	private final int[] offsets = new int[4];
+	private int search=0;
+	private int expanded=0;
+	private int bestLength;
+	private int bestFrom;
+	private int bestDirection;
+
+	@Override
+	public boolean findPath(GridView map, int start, int goal, Path path) {
+		path.clear();
+		prepare(map);
+		int forwardHead = 0;
+		int forwardTail = 0;
+		int backwardHead = 0;
+		int backwardTail = 0;
+		forwardSeen[start]=search;
+		forwardDistances[start]=0;
+		forwardQueue[forwardTail++]=start;
+		backwardSeen[goal]=search;
+		backwardDistances[goal]=0;
+		backwardQueue[backwardTail++]=goal;
+		bestLength=Integer.MAX_VALUE;
+		while(forwardHead<forwardTail && backwardHead<backwardTail) {
+			if(forwardTail-forwardHead<=backwardTail-backwardHead) {
+				int levelEnd = forwardTail;
+				while(forwardHead<levelEnd) {
+					int current = forwardQueue[forwardHead++];
+					for(int direction=0;direction<4;direction++) {
+						int next = current+offsets[direction];
+						if(backwardSeen[next]==search) {
+							meet(current, direction, forwardDistances[current]+1+backwardDistances[next]);
+							continue;
+						}
+						if(forwardSeen[next]==search || map.getCellType(next)!=GridView.EMPTY) {
+							continue;
+						}
+						forwardSeen[next]=search;
+						forwardDistances[next]=forwardDistances[current]+1;
+						forwardCameFrom[next]=(byte)direction;
+						forwardQueue[forwardTail++]=next;
+					}
+				}
+			}else {
+				int levelEnd = backwardTail;
+				while(backwardHead<levelEnd) {
+					int current = backwardQueue[backwardHead++];
+					for(int direction=0;direction<4;direction++) {
+						int next = current-offsets[direction];
+						if(forwardSeen[next]==search) {
+							meet(next, direction, forwardDistances[next]+1+backwardDistances[current]);
+							continue;
+						}
+						if(backwardSeen[next]==search || map.getCellType(next)!=GridView.EMPTY) {
+							continue;
+						}
+						backwardSeen[next]=search;
+						backwardDistances[next]=backwardDistances[current]+1;
+						backwardCameFrom[next]=(byte)direction;
+						backwardQueue[backwardTail++]=next;
+					}
+				}
+			}
+			if(bestLength!=Integer.MAX_VALUE) {
+				writePath(start, goal, path);
+				expanded=forwardHead+backwardHead;
+				return true;
+			}
+		}
+		expanded=forwardHead+backwardHead;
+		return false;
+	}
+	@Override
+	public int getExpandedNodes() {
+		return expanded;
+	}
+	/**
+	 * Remembers a meeting of the two searches if it is the shortest one so far.
+	 * @param from cell reached by the forward search
+	 * @param direction direction from that cell to a cell reached by the backward search
+	 * @param length length of the whole path
+	 */
+	private void meet(int from, int direction, int length) {
+		if(length<bestLength) {
+			bestLength=length;
+			bestFrom=from;
+			bestDirection=direction;
+		}
+	}
+	/**
+	 * Makes the buffers ready for a new search on a map.
+	 * @param map the map will be searched
+	 */
+	private void prepare(GridView map) {
+		int stride = map.getStride();
+		int length = stride*(map.getGridHeight()+2);
+		if(forwardSeen.length<length) {
+			forwardQueue = new int[length];
+			backwardQueue = new int[length];
+			forwardSeen = new int[length];
+			backwardSeen = new int[length];
+			forwardDistances = new int[length];
+			backwardDistances = new int[length];
+			forwardCameFrom = new byte[length];
+			backwardCameFrom = new byte[length];
+			search=0;
+		}
+		if(search==Integer.MAX_VALUE) {
+			Arrays.fill(forwardSeen, 0);
+			Arrays.fill(backwardSeen, 0);
+			search=0;
+		}
+		search++;
+		offsets[Direction.LEFT.ordinal()]=-1;
+		offsets[Direction.RIGHT.ordinal()]=1;
+		offsets[Direction.UP.ordinal()]=-stride;
+		offsets[Direction.DOWN.ordinal()]=stride;
+	}
+	/**
+	 * Writes the directions of the best meeting to the path.
+	 * The forward half is walked back to the start, the backward half is walked on to the goal.
+	 * @param start index of the start cell
+	 * @param goal index of the goal cell
+	 * @param path the path to be filled
+	 */
+	private void writePath(int start, int goal, Path path) {
+		path.reset(bestLength);
+		int position = forwardDistances[bestFrom];
+		for(int current=bestFrom;current!=start;current-=offsets[forwardCameFrom[current]]) {
+			path.set(--position, forwardCameFrom[current], current);
+		}
+		position = forwardDistances[bestFrom];
+		int current = bestFrom+offsets[bestDirection];
+		path.set(position++, bestDirection, current);
+		while(current!=goal) {
+			int direction = backwardCameFrom[current];
+			current+=offsets[direction];
+			path.set(position++, direction, current);
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package ai;
+
+import java.util.Arrays;
+
+import ability.Direction;
+/**
+ * Class that finds shortest paths on a GridView with breadth first search.
+ * All buffers are kept between calls: the queue is a ring buffer of cell indices,
+ * visited cells are marked with the number of the current search so nothing is cleared per call,
+ * and every visited cell remembers the direction it was reached from.
+ * After the buffers have grown to the size of the grid a search does not allocate anything.
+ * A search for food stops at the first food it reaches, which is the nearest one by walking distance.
+ *
+ */
+public class BreadthFirstSearch implements PathFinder{
+	private static final int LEFT = Direction.LEFT.ordinal();
+	private static final int RIGHT = Direction.RIGHT.ordinal();
+	private static final int UP = Direction.UP.ordinal();
+	private static final int DOWN = Direction.DOWN.ordinal();
+	private int[] queue = new int[0];
+	private int[] visited = new int[0];
+	private byte[] cameFrom = new byte[0];
+	private final int[] offsets = new int[4];
+	private int search=0;
+	private int expanded=0;
+	@Override
+	public boolean findPath(GridView map, int start, int goal, Path path) {
+		return search(map, start, goal, path);
+	}
+	@Override
+	public boolean findPathToFood(GridView map, int start, int nearestFood, Path path) {
+		return search(map, start, -1, path);
+	}
+	/**
+	 * Searches the map from a cell until the goal is reached.
+	 * @param map the state of the map to search on
+	 * @param start index of the start cell
+	 * @param goal index of the goal cell or -1 to stop at the first FOOD cell
+	 * @param path the path to be filled
+	 * @return true if a path is found
+	 */
+	private boolean search(GridView map, int start, int goal, Path path) {
+		path.clear();
+		prepare(map);
+		int mask = queue.length-1;
+		int head = 0;
+		int tail = 0;
+		visited[start]=search;
+		queue[tail++ & mask]=start;
+		while(head!=tail) {
+			int current = queue[head++ & mask];
+			for(int direction=0;direction<4;direction++) {
+				int next = current+offsets[direction];
+				if(visited[next]==search) {
+					continue;
+				}
+				byte type = map.getCellType(next);
+				if(next==goal || (goal<0 && type==GridView.FOOD)) {
+					cameFrom[next]=(byte)direction;
+					writePath(start, next, path);
+					expanded=head;
+					return true;
+				}
+				if(type!=GridView.EMPTY) {
+					continue;
+				}
+				visited[next]=search;
+				cameFrom[next]=(byte)direction;
+				queue[tail++ & mask]=next;
+			}
+		}
+		expanded=head;
+		return false;
+	}
+	@Override
+	public int getExpandedNodes() {
+		return expanded;
+	}
+	/**
+	 * Makes the buffers ready for a new search on a map.
+	 * @param map the map will be searched
+	 */
+	private void prepare(GridView map) {
+		int stride = map.getStride();
+		int length = stride*(map.getGridHeight()+2);
+		if(visited.length<length) {
+			visited = new int[length];
+			cameFrom = new byte[length];
+			queue = new int[Integer.highestOneBit(length-1)<<1];
+			search=0;
+		}
+		if(search==Integer.MAX_VALUE) {
+			Arrays.fill(visited, 0);
+			search=0;
+		}
+		search++;
+		offsets[LEFT]=-1;
+		offsets[RIGHT]=1;
+		offsets[UP]=-stride;
+		offsets[DOWN]=stride;
+	}
+	/**
+	 * Walks back from the goal to the start and writes the directions to the path.
+	 * @param start index of the start cell
+	 * @param goal index of the goal cell
+	 * @param path the path to be filled
+	 */
+	private void writePath(int start, int goal, Path path) {
+		int length = 0;
+		for(int current=goal;current!=start;current-=offsets[cameFrom[current]]) {
+			length++;
+		}
+		path.reset(length);
+		for(int current=goal;current!=start;current-=offsets[cameFrom[current]]) {
+			path.set(--length, cameFrom[current], current);
+		}
+	}
+}
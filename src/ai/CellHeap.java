@@ -0,0 +1,77 @@
+package ai;
+
+import java.util.Arrays;
+/**
+ * Binary min-heap of cell indices ordered by an integer key.
+ * Used as the open list of the best first searches, it grows when needed and is reused between searches.
+ *
+ */
+class CellHeap {
+	private int[] cells = new int[16];
+	private int[] keys = new int[16];
+	private int size=0;
+	/**
+	 * Removes all cells from the heap.
+	 */
+	void clear() {
+		size=0;
+	}
+	/**
+	 * Checks the heap is empty or not.
+	 * @return true if there is no cell in the heap
+	 */
+	boolean isEmpty() {
+		return size==0;
+	}
+	/**
+	 * Adds a cell to the heap.
+	 * @param cell index of the cell
+	 * @param key key of the cell, smaller keys are popped first
+	 */
+	void push(int cell, int key) {
+		if(size==cells.length) {
+			cells = Arrays.copyOf(cells, size*2);
+			keys = Arrays.copyOf(keys, size*2);
+		}
+		int i = size++;
+		while(i>0) {
+			int parent = (i-1)>>1;
+			if(keys[parent]<=key) {
+				break;
+			}
+			cells[i]=cells[parent];
+			keys[i]=keys[parent];
+			i=parent;
+		}
+		cells[i]=cell;
+		keys[i]=key;
+	}
+	/**
+	 * Removes the cell with the smallest key from the heap.
+	 * @return index of the cell
+	 */
+	int pop() {
+		int result = cells[0];
+		int cell = cells[--size];
+		int key = keys[size];
+		int i = 0;
+		while(true) {
+			int child = 2*i+1;
+			if(child>=size) {
+				break;
+			}
+			if(child+1<size && keys[child+1]<keys[child]) {
+				child++;
+			}
+			if(keys[child]>=key) {
+				break;
+			}
+			cells[i]=cells[child];
+			keys[i]=keys[child];
+			i=child;
+		}
+		cells[i]=cell;
+		keys[i]=key;
+		return result;
+	}
+}
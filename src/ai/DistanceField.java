@@ -0,0 +1,176 @@
+package ai;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import ability.Direction;
+/**
+ * Class representing the distances of all cells to the nearest food.
+ * The field is computed with one breadth first search starting from all foods at once, walking only through EMPTY cells.
+ * Every snake then finds its next move by reading the distances of its neighbour cells,
+ * so one search is enough for all snakes instead of one search per snake.
+ * Like BreadthFirstSearch, the buffers are kept between computations and the cells are stamped with the computation number.
+ *
+ */
+public class DistanceField {
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private int[] queue = new int[0];
+	private int[] reached = new int[0];
+	private int[] distances = new int[0];
+	private final int[] offsets = new int[4];
+	private final int[] singleGoal = new int[1];
+	private int computation=0;
+	private boolean stale=false;
+	/**
+	 * Computes the distances of all reachable cells to a goal cell.
+	 * @param map the state of the map
+	 * @param goal index of the goal cell
+	 */
+	public void compute(GridView map, int goal) {
+		singleGoal[0]=goal;
+		compute(map, singleGoal, 1);
+	}
+	/**
+	 * Computes the distances of all reachable cells to the nearest of some goal cells.
+	 * @param map the state of the map
+	 * @param goals indices of the goal cells
+	 * @param count number of goal cells in the array
+	 */
+	public void compute(GridView map, int[] goals, int count) {
+		prepare(map);
+		int mask = queue.length-1;
+		int head = 0;
+		int tail = 0;
+		for(int i=0;i<count;i++) {
+			int goal = goals[i];
+			if(reached[goal]==computation) {
+				continue;
+			}
+			reached[goal]=computation;
+			distances[goal]=0;
+			queue[tail++ & mask]=goal;
+		}
+		while(head!=tail) {
+			int current = queue[head++ & mask];
+			int distance = distances[current]+1;
+			for(int direction=0;direction<4;direction++) {
+				int next = current+offsets[direction];
+				if(reached[next]==computation || map.getCellType(next)!=GridView.EMPTY) {
+					continue;
+				}
+				reached[next]=computation;
+				distances[next]=distance;
+				queue[tail++ & mask]=next;
+			}
+		}
+		stale=false;
+	}
+	/**
+	 * Returns the distance of a cell to the nearest goal.
+	 * @param index index of the cell
+	 * @return the distance or Integer.MAX_VALUE if the cell can not reach any goal
+	 */
+	public int getDistance(int index) {
+		if(computation==0 || index>=reached.length || reached[index]!=computation) {
+			return Integer.MAX_VALUE;
+		}
+		return distances[index];
+	}
+	/**
+	 * Finds the free neighbour of a cell which is the closest to a goal.
+	 * @param map the state of the map the snake sees
+	 * @param from index of the snake's head
+	 * @return the direction of the closest free neighbour or null if no free neighbour can reach a goal
+	 */
+	public Direction getDirection(GridView map, int from) {
+		int best = -1;
+		int bestDistance = Integer.MAX_VALUE;
+		for(int direction=0;direction<4;direction++) {
+			int next = from+offsets[direction];
+			if(map.getCellType(next)!=GridView.EMPTY) {
+				continue;
+			}
+			int distance = getDistance(next);
+			if(distance<bestDistance) {
+				bestDistance=distance;
+				best=direction;
+			}
+		}
+		return best<0 ? null : DIRECTIONS[best];
+	}
+	/**
+	 * Writes the distances of the last computation, for a snapshot of the world.
+	 * @param map the map the field was computed on
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	public void writeTo(GridView map, DataOutput out) throws IOException {
+		int length = map.getStride()*(map.getGridHeight()+2);
+		out.writeBoolean(stale);
+		out.writeInt(length);
+		for(int i=0;i<length;i++) {
+			out.writeInt(getDistance(i));
+		}
+	}
+	/**
+	 * Replaces the field with a field written by writeTo(...).
+	 * @param map the map the field is used on
+	 * @param in the input
+	 * @throws IOException if the input can not be read
+	 */
+	public void readFrom(GridView map, DataInput in) throws IOException {
+		boolean wasStale = in.readBoolean();
+		int length = in.readInt();
+		if(length!=map.getStride()*(map.getGridHeight()+2)) {
+			throw new IOException("The distance field does not fit the map");
+		}
+		computation=0;
+		prepare(map);
+		for(int i=0;i<length;i++) {
+			int distance = in.readInt();
+			if(distance!=Integer.MAX_VALUE) {
+				reached[i]=computation;
+				distances[i]=distance;
+			}
+		}
+		stale=wasStale;
+	}
+	/**
+	 * Marks the field as out of date, for example because a snake found its way blocked.
+	 */
+	public void markStale() {
+		stale=true;
+	}
+	/**
+	 * Checks the field is marked as out of date since the last computation.
+	 * @return true if the field is stale
+	 */
+	public boolean isStale() {
+		return stale;
+	}
+	/**
+	 * Makes the buffers ready for a new computation on a map.
+	 * @param map the map will be searched
+	 */
+	private void prepare(GridView map) {
+		int stride = map.getStride();
+		int length = stride*(map.getGridHeight()+2);
+		if(reached.length<length) {
+			reached = new int[length];
+			distances = new int[length];
+			queue = new int[Integer.highestOneBit(length-1)<<1];
+			computation=0;
+		}
+		if(computation==Integer.MAX_VALUE) {
+			Arrays.fill(reached, 0);
+			computation=0;
+		}
+		computation++;
+		offsets[Direction.LEFT.ordinal()]=-1;
+		offsets[Direction.RIGHT.ordinal()]=1;
+		offsets[Direction.UP.ordinal()]=-stride;
+		offsets[Direction.DOWN.ordinal()]=stride;
+	}
+}
@@ -0,0 +1,16 @@
+package ai;
+/**
+ * Interface for finding the food a snake should go for.
+ * Information asks it only when a snake generates a path, so snakes which do not need a path never search for food.
+ *
+ */
+public interface FoodLocator {
+	/**
+	 * Finds the food which is the nearest to a position.
+	 * @param map the state of the map the snake sees
+	 * @param x x coordinate of the position
+	 * @param y y coordinate of the position
+	 * @return index of the cell of the food or -1 if there is no food
+	 */
+	public int findNearestFood(GridView map, int x, int y);
+}
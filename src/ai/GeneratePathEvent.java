@@ -0,0 +1,35 @@
+package ai;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+/**
+ * Flight recorder event of a path generated by Information.generatePath(...).
+ * Like every event it can be enabled, disabled or given a threshold in the settings of a recording.
+ *
+ */
+@Name("snakesimulator.GeneratePath")
+@Label("Generate Path")
+@Category({"Snake Simulator", "AI"})
+@Description("A snake generated a path to a food")
+class GeneratePathEvent extends Event{
+	@Label("Start X")
+	int startX;
+	@Label("Start Y")
+	int startY;
+	@Label("Goal X")
+	@Description("X coordinate of the nearest food by Manhattan distance, -1 if there is no food")
+	int goalX=-1;
+	@Label("Goal Y")
+	@Description("Y coordinate of the nearest food by Manhattan distance, -1 if there is no food")
+	int goalY=-1;
+	@Label("Nodes Expanded")
+	@Description("Cells expanded by the search, -1 if the path finder does not count them")
+	int nodesExpanded=-1;
+	@Label("Path Length")
+	int pathLength;
+	@Label("Success")
+	boolean success;
+}
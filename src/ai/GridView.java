@@ -0,0 +1,53 @@
+package ai;
+
+import elements.Segment;
+/**
+ * Interface representing a read-only view of the grid world.
+ * Snakes see the world only through this interface, so the game can decide which state of the world they see.
+ * Besides the segments, every cell has a primitive cell type. Cells are addressed by an index in a grid
+ * padded with one WALL cell on each side, so neighbours of any cell inside the grid can be read without bounds checks.
+ *
+ */
+public interface GridView {
+	public static final byte EMPTY = 0;
+	public static final byte SNAKE_BODY = 1;
+	public static final byte SNAKE_HEAD = 2;
+	public static final byte FOOD = 3;
+	public static final byte WALL = 4;
+	/**
+	 * Getter for the width of the grid world.
+	 * @return number of grid squares along the width
+	 */
+	public int getGridWidth();
+	/**
+	 * Getter for the height of the grid world.
+	 * @return number of grid squares along the height
+	 */
+	public int getGridHeight();
+	/**
+	 * Returns the segment at a position.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return segment or null if the position is empty or outside the grid
+	 */
+	public Segment getSegment(int x, int y);
+	/**
+	 * Returns the type of a cell.
+	 * @param index index of the cell
+	 * @return one of EMPTY, SNAKE_BODY, SNAKE_HEAD, FOOD or WALL
+	 */
+	public byte getCellType(int index);
+	/**
+	 * Getter for the distance between the indices of two vertically neighbour cells.
+	 * @return the width of the padded grid
+	 */
+	public int getStride();
+	/**
+	 * Returns the index of a position.
+	 * Positions one square outside the grid have the index of a WALL cell.
+	 * @param x x coordinate between -1 and width
+	 * @param y y coordinate between -1 and height
+	 * @return index of the cell
+	 */
+	public int indexOf(int x, int y);
+}
@@ -1,10 +1,7 @@
 package ai;
 
-import java.awt.Point;
-import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Queue;
 
 
 import ability.Direction;
@@ -12,39 +9,51 @@ import elements.Segment;
 /**
  * Class representing the information for any snake in the game loop.
  * Class including information about snakes surroundings and generates the shortest path for any snake.
- * Automatically created and passed by the game to each snake at each timer tick.
+ * Passed by the game to each snake at each timer tick, the game reuses the same objects in every tick.
+ * The information is a view of the map around the snake's head, everything is looked up when the snake asks for it.
  *
  */
 
 public class Information {
-	private static int gridWidth;
-	private static int gridHeight;
-
-	private HashMap<Direction, Segment> segments;
-	private List<Direction> freeDirections;
-	private Segment snakeHead;
-	private static Point foodLocation;
-	private Segment[][] currentMap;
+	private GridView currentMap;
+	private int headX;
+	private int headY;
+	private int headIndex;
+	private FoodLocator foods;
+	private PathFinder pathFinder;
+	private DistanceField distanceField;
+	private Path generatedPath;
+	private int generatedPathCount;
+	private final ArrayList<Direction> freeDirections = new ArrayList<>(4);
+	private boolean freeDirectionsReady;
 
 	/**
-	 * Constructs the information for a snake.
-	 * @param gridWidth width of the grid world
-	 * @param gridHeight height of the grid world
-	 * @param segments mapping of directions to neighbor creatures
-	 * @param freeDirections list of free directions
-	 * @param snakeHead current location of snake's head
-	 * @param foodLocation current location of food
-	 * @param currentMap copy of current game map
+	 * Constructs an empty information, it must be reset for a snake before the snake uses it.
 	 */
-	public Information(int gridWidth, int gridHeight,
-			HashMap<Direction, Segment> segments, List<Direction> freeDirections,Segment snakeHead,Point foodLocation,Segment[][]currentMap) {
-		Information.gridWidth = gridWidth;
-		Information.gridHeight = gridHeight;
-		this.segments = segments;
-		this.freeDirections = freeDirections;
-		this.snakeHead=snakeHead;
-		Information.foodLocation=foodLocation;
+	public Information() {
+	}
+	/**
+	 * Resets the information for a snake.
+	 * Nothing is computed here: neighbors, free directions and paths are read from the map when the snake asks for them,
+	 * so the map must not change until the snake has chosen its action.
+	 * @param currentMap the state of the game map the snake sees
+	 * @param headX x coordinate of snake's head
+	 * @param headY y coordinate of snake's head
+	 * @param foods finds the food for generated paths
+	 * @param pathFinder the path finder of the game
+	 * @param distanceField the distance field of the game, null if snakes search their own paths
+	 */
+	public void reset(GridView currentMap, int headX, int headY, FoodLocator foods, PathFinder pathFinder, DistanceField distanceField) {
 		this.currentMap=currentMap;
+		this.headX=headX;
+		this.headY=headY;
+		this.headIndex=currentMap.indexOf(headX, headY);
+		this.foods=foods;
+		this.pathFinder=pathFinder;
+		this.distanceField=distanceField;
+		generatedPath=null;
+		generatedPathCount=0;
+		freeDirectionsReady=false;
 	}
 
 	/**
@@ -53,7 +62,7 @@ public class Information {
 	 * @return number of grid squares along the width
 	 */
 	public int getGridWidth() {
-		return gridWidth;
+		return currentMap.getGridWidth();
 	}
 
 	/**
@@ -62,7 +71,7 @@ public class Information {
 	 * @return number of grid squares along the height
 	 */
 	public int getGridHeight() {
-		return gridHeight;
+		return currentMap.getGridHeight();
 	}
 
 	/**
@@ -70,7 +79,7 @@ public class Information {
 	 * @return creature or null if no creature exists
 	 */
 	public Segment getSegmentUp() {
-		return segments.get(Direction.UP);
+		return currentMap.getSegment(headX, headY - 1);
 	}
 
 	/**
@@ -78,7 +87,7 @@ public class Information {
 	 * @return creature or null if no creature exists
 	 */
 	public Segment getSegmentDown() {
-		return segments.get(Direction.DOWN);
+		return currentMap.getSegment(headX, headY + 1);
 	}
 
 	/**
@@ -86,7 +95,7 @@ public class Information {
 	 * @return creature or null if no creature exists
 	 */
 	public Segment getSegmentLeft() {
-		return segments.get(Direction.LEFT);
+		return currentMap.getSegment(headX - 1, headY);
 	}
 
 	/**
@@ -94,197 +103,117 @@ public class Information {
 	 * @return creature or null if no creature exists
 	 */
 	public Segment getSegmentRight() {
-		return segments.get(Direction.RIGHT);
+		return currentMap.getSegment(headX + 1, headY);
 	}
 
 	/**
 	 * Returns the list of free directions around the current position.
 	 * The list does not contain directions out of bounds or containing a creature.
 	 * Can be used to determine the directions available to move or reproduce.
+	 * The list is owned by this information and is filled again when the information is reset for the next snake.
 	 * @return creature or null if no creature exists
 	 */
 	public List<Direction> getFreeDirections() {
-		return freeDirections;
-	}
-	/**
-	 * Returns the list of free points around a coordinate.
-	 * Location of food is accepted free(Snake can make move through the food)
-	 * In path matrix -1 is location of food, 0 is free point.
-	 * @param x x coordinate of a point
-	 * @param y y coordinate of a point
-	 * @param pathMatrix the model of current map to find the shortest path
-	 * @return list of free points around a point
-	 */
-	private List<Point> getFreePointsAround(int x,int y,int[][]pathMatrix){
-		LinkedList<Point> freePointsAround = new LinkedList<Point>();
-		if(isPositionInsideGrid(x-1, y)) {
-			if((currentMap[x-1][y]==null&&pathMatrix[x-1][y]==0)||pathMatrix[x-1][y]==-1) {
-				freePointsAround.add(new Point(x-1,y));
+		if(!freeDirectionsReady) {
+			freeDirections.clear();
+			int stride = currentMap.getStride();
+			if (currentMap.getCellType(headIndex - stride) == GridView.EMPTY) {
+				freeDirections.add(Direction.UP);
 			}
-		}
-		if(isPositionInsideGrid(x+1, y)) {
-			if((currentMap[x+1][y]==null&&pathMatrix[x+1][y]==0)||pathMatrix[x+1][y]==-1) {
-				freePointsAround.add(new Point(x+1,y));
+			if (currentMap.getCellType(headIndex + stride) == GridView.EMPTY) {
+				freeDirections.add(Direction.DOWN);
 			}
-		}
-		if(isPositionInsideGrid(x, y+1)) {
-			if((currentMap[x][y+1]==null&&pathMatrix[x][y+1]==0)||pathMatrix[x][y+1]==-1) {
-				freePointsAround.add(new Point(x,y+1));
+			if (currentMap.getCellType(headIndex - 1) == GridView.EMPTY) {
+				freeDirections.add(Direction.LEFT);
 			}
-		}
-		if(isPositionInsideGrid(x, y-1)) {
-			if((currentMap[x][y-1]==null&&pathMatrix[x][y-1]==0)||pathMatrix[x][y-1]==-1) {
-				freePointsAround.add(new Point(x,y-1));
+			if (currentMap.getCellType(headIndex + 1) == GridView.EMPTY) {
+				freeDirections.add(Direction.RIGHT);
 			}
+			freeDirectionsReady=true;
 		}
-		return freePointsAround;
+		return freeDirections;
 	}
 	/**
-	 * Utility function to get a randomly selected direction among multiple directions.
-	 * The selection is uniform random: All directions in the list have an equal chance to be chosen.
+	 * Utility function to get a randomly selected direction among multiple directions with a given generator.
+	 * The selection is uniform random and the same generator state always selects the same direction.
 	 * @param possibleDirections list of possible directions
+	 * @param random the random number generator to use
 	 * @return direction randomly selected from the list of possible directions
 	 */
-	public static Direction getRandomDirection(List<Direction> possibleDirections) {
+	public static Direction getRandomDirection(List<Direction> possibleDirections, SplitRandom random) {
 		if (possibleDirections.isEmpty()) {
 			return null;
 		}
-		int randomIndex = (int)(Math.random() * possibleDirections.size());
-		return possibleDirections.get(randomIndex);
+		return possibleDirections.get(random.nextInt(possibleDirections.size()));
 	}
 	/**
-	 * Checks a point inside the grid or not.
-	 * @param x x coordinate
-	 * @param y y coordinate
-	 * @return true is point is inside grid, false is point outside grid
+	 * Generates the shortest path for food.
+	 * When there are many foods the path finder may lead the snake to another food which is nearer by walking distance.
+	 * The path is written into the given path object, so the snake can reuse it.
+	 * The game registers the generated path to its path index after the snake has chosen its action.
+	 * Every call is recorded as a GeneratePath event if a flight recording with this event is running.
+	 * @param path the path of the snake, it is left empty if there is no way to the food
+	 * @return true if a path is found
 	 */
-	private boolean isPositionInsideGrid(int x, int y) {
-		return (x >= 0 && x < getGridWidth()) && (y >= 0 && y < getGridHeight());
+	public boolean generatePath(Path path){
+		GeneratePathEvent event = new GeneratePathEvent();
+		event.begin();
+		boolean found = false;
+		int goal = foods.findNearestFood(currentMap, headX, headY);
+		if(goal<0) {
+			path.clear();
+		}else {
+			found = pathFinder.findPathToFood(currentMap, headIndex, goal, path);
+		}
+		generatedPath=path;
+		generatedPathCount++;
+		if(event.shouldCommit()) {
+			event.startX=headX;
+			event.startY=headY;
+			if(goal>=0) {
+				int stride = currentMap.getStride();
+				event.goalX=goal%stride-1;
+				event.goalY=goal/stride-1;
+			}
+			event.nodesExpanded=pathFinder.getExpandedNodes();
+			event.pathLength=path.size();
+			event.success=found;
+			event.commit();
+		}
+		return found;
 	}
 	/**
-	 * Generates the shortest path for food
-	 * More detailed information will be in the project report.
-	 * @return the direction list of shortest path to the food for a snake
+	 * Returns the path generated with this information.
+	 * @return the last path passed to generatePath(...) or null if no path was generated
 	 */
-	public Queue<Direction> generatePath(){
-		int[][] pathMatrix = new int[getGridWidth()][getGridHeight()];
-		pathMatrix[foodLocation.x][foodLocation.y]=-1;
-		pathMatrix[snakeHead.getX()][snakeHead.getY()]=1;
-		Queue<Point> queue = new LinkedList<Point>();
-		queue.add(new Point(snakeHead.getX(),snakeHead.getY()));
-		boolean check = false;
-		while(!queue.isEmpty()) {
-			Point current = queue.poll();
-			int pathLevel = pathMatrix[current.x][current.y];
-			List<Point> points = getFreePointsAround(current.x, current.y, pathMatrix);
-			for(Point p : points){
-				if(pathMatrix[p.x][p.y]==-1) {
-					check=true;
-					break;
-				}else {
-					queue.add(p);
-					pathMatrix[p.x][p.y]=pathLevel+1;
-				}
-			}
-			if(check) {
-				break;
-			}
-		}
-		if(!check) {
-			return new LinkedList<Direction>();
-		}
-		LinkedList<Direction> path = new LinkedList<Direction>();
-		Point current = foodLocation;
-		int pathLevel = findSmallestLevelForFood(pathMatrix);
-		while(pathMatrix[current.x][current.y]!=1) {
-			List<Point> points = getPointsAround(current.x, current.y);
-			for(Point next : points) {
-				if(pathMatrix[next.x][next.y]==pathLevel) {
-					Direction direction = getDirection(current, next);
-					if(direction!=null) {
-						path.add(0, direction);
-						pathLevel--;
-						current=next;
-						break;
-					}
-				}
-			}
-		}
-		return path;
+	public Path getGeneratedPath() {
+		return generatedPath;
 	}
 	/**
-	 * Finds the direction of next point due to current point.
-	 * @param current current point
-	 * @param next next point 
-	 * @return the direction of next point due to current point
+	 * Returns the number of paths generated with this information.
+	 * @return number of calls of generatePath(...) since the information was reset
 	 */
-	private static Direction getDirection(Point current,Point next) {
-		if(next.x-current.x==1) {
-			return Direction.LEFT;
-		}
-		if(next.x-current.x==-1) {
-			return Direction.RIGHT;
-		}
-		if(next.y-current.y==1) {
-			return Direction.UP;
-		}
-		if(next.y-current.y==-1) {
-			return Direction.DOWN;
-		}
-		return null;
+	public int getGeneratedPathCount() {
+		return generatedPathCount;
 	}
 	/**
-	 * Generates a list of all points around a point.
-	 * @param x x coordinate of a point
-	 * @param y y coordinate of a point
-	 * @return the list of all points around a point
+	 * Checks the game shares a distance field with all snakes.
+	 * If it does, snakes should follow getDirectionFromField() instead of generating their own paths.
+	 * @return true if there is a distance field
 	 */
-	private List<Point> getPointsAround(int x,int y){
-		LinkedList<Point> points = new LinkedList<Point>();
-		if(isPositionInsideGrid(x, y)) {
-			if(isPositionInsideGrid(x+1, y)) {
-				points.add(new Point(x+1,y));
-			}
-			if(isPositionInsideGrid(x-1, y)) {
-				points.add(new Point(x-1,y));
-			}
-			if(isPositionInsideGrid(x, y+1)) {
-				points.add(new Point(x,y+1));
-			}
-			if(isPositionInsideGrid(x, y-1)) {
-				points.add(new Point(x,y-1));
-			}
-		}
-		return points;
+	public boolean hasDistanceField() {
+		return distanceField!=null;
 	}
 	/**
-	 * Finds the smallest level around the food.
-	 * More detailed information will be in the project report.
-	 * @param matrix the pathMatrix for current path
-	 * @return return the smallest level around food
+	 * Returns the free direction which is the closest to the food according to the distance field.
+	 * If no free direction leads to the food, the field is marked stale so the game computes it again.
+	 * @return the direction or null if no free direction leads to the food
 	 */
-	private int findSmallestLevelForFood(int[][]matrix) {
-		int min = Integer.MAX_VALUE;
-		if(isPositionInsideGrid(foodLocation.x+1, foodLocation.y)) {
-			if(matrix[foodLocation.x+1][foodLocation.y]>0) {
-				min=Math.min(min,matrix[foodLocation.x+1][foodLocation.y]);
-			}
-		}
-		if(isPositionInsideGrid(foodLocation.x-1, foodLocation.y)) {
-			if(matrix[foodLocation.x-1][foodLocation.y]>0) {
-				min=Math.min(min,matrix[foodLocation.x-1][foodLocation.y]);
-			}
-		}
-		if(isPositionInsideGrid(foodLocation.x, foodLocation.y-1)) {
-			if(matrix[foodLocation.x][foodLocation.y-1]>0) {
-				min=Math.min(min,matrix[foodLocation.x][foodLocation.y-1]);
-			}
-		}
-		if(isPositionInsideGrid(foodLocation.x, foodLocation.y+1)) {
-			if(matrix[foodLocation.x][foodLocation.y+1]>0) {
-				min=Math.min(min,matrix[foodLocation.x][foodLocation.y+1]);
-			}
+	public Direction getDirectionFromField() {
+		Direction direction = distanceField.getDirection(currentMap, headIndex);
+		if(direction==null) {
+			distanceField.markStale();
 		}
-		return min;
+		return direction;
 	}
 }
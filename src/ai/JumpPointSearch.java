@@ -0,0 +1,212 @@
+package ai;
+
+import java.util.Arrays;
+
+import ability.Direction;
+/**
+ * Class that finds shortest paths on a GridView with jump point search for four connected grids.
+ * Instead of putting every cell to the open list, the search jumps along straight lines and stops only at jump points:
+ * a horizontal jump stops where a vertical neighbour becomes open behind a wall (a forced neighbour),
+ * a vertical jump stops where one of the horizontal jumps started from it finds something.
+ * The jump points are searched with A* and the Manhattan distance, the path between two jump points is a straight line.
+ *
+ */
+public class JumpPointSearch implements PathFinder{
+	private static final int LEFT = Direction.LEFT.ordinal();
+	private static final int RIGHT = Direction.RIGHT.ordinal();
+	private static final int UP = Direction.UP.ordinal();
+	private static final int DOWN = Direction.DOWN.ordinal();
+	private static final int NONE = -1;
+	private final CellHeap open = new CellHeap();
+	private int[] costs = new int[0];
+	private int[] seen = new int[0];
+	private int[] closed = new int[0];
+	private int[] parents = new int[0];
+	private byte[] arrivals = new byte[0];
+	private final int[] offsets = new int[4];
+	private int search=0;
+	private int expanded=0;
+	private int stride;
+	private GridView map;
+	private int goal;
+
+	@Override
+	public boolean findPath(GridView map, int start, int goal, Path path) {
+		path.clear();
+		prepare(map);
+		this.map=map;
+		this.goal=goal;
+		open.clear();
+		expanded=0;
+		seen[start]=search;
+		costs[start]=0;
+		arrivals[start]=NONE;
+		open.push(start, heuristic(start));
+		boolean found = false;
+		while(!open.isEmpty()) {
+			int current = open.pop();
+			if(closed[current]==search) {
+				continue;
+			}
+			closed[current]=search;
+			expanded++;
+			if(current==goal) {
+				found = true;
+				break;
+			}
+			int arrival = arrivals[current];
+			if(arrival==NONE) {
+				for(int direction=0;direction<4;direction++) {
+					addSuccessor(current, direction);
+				}
+			}else if(arrival==LEFT || arrival==RIGHT) {
+				addSuccessor(current, arrival);
+				addSuccessor(current, UP);
+				addSuccessor(current, DOWN);
+			}else {
+				addSuccessor(current, arrival);
+				addSuccessor(current, LEFT);
+				addSuccessor(current, RIGHT);
+			}
+		}
+		if(found) {
+			writePath(start, path);
+		}
+		this.map=null;
+		return found;
+	}
+	@Override
+	public int getExpandedNodes() {
+		return expanded;
+	}
+	/**
+	 * Jumps from a jump point in a direction and adds the found jump point to the open list.
+	 * @param from index of the jump point
+	 * @param direction direction of the jump
+	 */
+	private void addSuccessor(int from, int direction) {
+		int next = (direction==LEFT || direction==RIGHT) ? jumpHorizontal(from, offsets[direction]) : jumpVertical(from, offsets[direction]);
+		if(next<0 || closed[next]==search) {
+			return;
+		}
+		int cost = costs[from]+distance(from, next);
+		if(seen[next]==search && costs[next]<=cost) {
+			return;
+		}
+		seen[next]=search;
+		costs[next]=cost;
+		parents[next]=from;
+		arrivals[next]=(byte)direction;
+		open.push(next, cost+heuristic(next));
+	}
+	/**
+	 * Jumps horizontally until a jump point, the goal or an obstacle.
+	 * @param cell index of the start cell of the jump
+	 * @param dx offset of one step, -1 or 1
+	 * @return index of the jump point or -1 if there is none
+	 */
+	private int jumpHorizontal(int cell, int dx) {
+		while(true) {
+			cell+=dx;
+			if(!isWalkable(cell)) {
+				return -1;
+			}
+			if(cell==goal) {
+				return cell;
+			}
+			if((isWalkable(cell-stride) && !isWalkable(cell-dx-stride)) || (isWalkable(cell+stride) && !isWalkable(cell-dx+stride))) {
+				return cell;
+			}
+		}
+	}
+	/**
+	 * Jumps vertically until a jump point, the goal or an obstacle.
+	 * Every cell of the jump starts horizontal jumps, the cell is a jump point if one of them finds something.
+	 * @param cell index of the start cell of the jump
+	 * @param dy offset of one step, -stride or stride
+	 * @return index of the jump point or -1 if there is none
+	 */
+	private int jumpVertical(int cell, int dy) {
+		while(true) {
+			cell+=dy;
+			if(!isWalkable(cell)) {
+				return -1;
+			}
+			if(cell==goal) {
+				return cell;
+			}
+			if(jumpHorizontal(cell, -1)>=0 || jumpHorizontal(cell, 1)>=0) {
+				return cell;
+			}
+		}
+	}
+	/**
+	 * Checks a cell can be walked through.
+	 * @param cell index of the cell
+	 * @return true if the cell is empty or it is the goal
+	 */
+	private boolean isWalkable(int cell) {
+		return cell==goal || map.getCellType(cell)==GridView.EMPTY;
+	}
+	/**
+	 * Manhattan distance of a cell to the goal.
+	 * @param cell index of the cell
+	 * @return the distance
+	 */
+	private int heuristic(int cell) {
+		return distance(cell, goal);
+	}
+	/**
+	 * Manhattan distance between two cells.
+	 * @param from index of the first cell
+	 * @param to index of the second cell
+	 * @return the distance
+	 */
+	private int distance(int from, int to) {
+		return Math.abs(from%stride-to%stride)+Math.abs(from/stride-to/stride);
+	}
+	/**
+	 * Makes the buffers ready for a new search on a map.
+	 * @param map the map will be searched
+	 */
+	private void prepare(GridView map) {
+		stride = map.getStride();
+		int length = stride*(map.getGridHeight()+2);
+		if(seen.length<length) {
+			costs = new int[length];
+			seen = new int[length];
+			closed = new int[length];
+			parents = new int[length];
+			arrivals = new byte[length];
+			search=0;
+		}
+		if(search==Integer.MAX_VALUE) {
+			Arrays.fill(seen, 0);
+			Arrays.fill(closed, 0);
+			search=0;
+		}
+		search++;
+		offsets[LEFT]=-1;
+		offsets[RIGHT]=1;
+		offsets[UP]=-stride;
+		offsets[DOWN]=stride;
+	}
+	/**
+	 * Walks back from the goal through the jump points and writes the straight lines between them to the path.
+	 * @param start index of the start cell
+	 * @param path the path to be filled
+	 */
+	private void writePath(int start, Path path) {
+		int length = costs[goal];
+		path.reset(length);
+		int current = goal;
+		while(current!=start) {
+			int parent = parents[current];
+			int direction = arrivals[current];
+			for(int cell=current;cell!=parent;cell-=offsets[direction]) {
+				path.set(--length, direction, cell);
+			}
+			current=parent;
+		}
+	}
+}
@@ -0,0 +1,160 @@
+package ai;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import ability.Direction;
+/**
+ * Class representing a path as a reusable primitive buffer of directions.
+ * A snake keeps one Path and the path finder refills it, so generating a path does not create garbage.
+ * Besides the directions, the path keeps the index of the cell reached by every direction,
+ * so a PathIndex can tell which paths cross a cell.
+ *
+ */
+public class Path {
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private byte[] directions = new byte[16];
+	private int[] cells = new int[16];
+	private int start=0;
+	private int end=0;
+	private boolean invalidated=false;
+	int[] entries = new int[16];
+	int registeredFrom=0;
+	int registeredTo=0;
+	/**
+	 * Writes the directions left in the path and their cells, for a snapshot of the world.
+	 * The path index is not written, the world registers the read path again.
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeBoolean(invalidated);
+		out.writeInt(end-start);
+		for(int i=start;i<end;i++) {
+			out.writeByte(directions[i]);
+			out.writeInt(cells[i]);
+		}
+	}
+	/**
+	 * Replaces the path with a path written by writeTo(...).
+	 * The path must not be registered to a path index.
+	 * @param in the input
+	 * @param maxLength the largest valid length, a path never visits more cells than its grid has
+	 * @throws IOException if the input can not be read or the length is not valid
+	 */
+	public void readFrom(DataInput in, int maxLength) throws IOException {
+		boolean wasInvalidated = in.readBoolean();
+		int length = in.readInt();
+		if(length<0 || length>maxLength) {
+			throw new IOException("Invalid path length "+length);
+		}
+		reset(length);
+		for(int i=0;i<length;i++) {
+			set(i, in.readByte(), in.readInt());
+		}
+		invalidated=wasInvalidated;
+	}
+	/**
+	 * Removes all directions of the path.
+	 */
+	public void clear() {
+		start=0;
+		end=0;
+	}
+	/**
+	 * Checks the path is empty or not.
+	 * @return true if there is no direction left in the path
+	 */
+	public boolean isEmpty() {
+		return start==end;
+	}
+	/**
+	 * Getter for the number of directions left in the path.
+	 * @return number of directions
+	 */
+	public int size() {
+		return end-start;
+	}
+	/**
+	 * Returns the next direction without removing it.
+	 * @return the next direction or null if the path is empty
+	 */
+	public Direction peek() {
+		return start==end ? null : DIRECTIONS[directions[start]];
+	}
+	/**
+	 * Removes and returns the next direction.
+	 * @return the next direction or null if the path is empty
+	 */
+	public Direction poll() {
+		return start==end ? null : DIRECTIONS[directions[start++]];
+	}
+	/**
+	 * Checks the path was invalidated by a change in the world since it was generated.
+	 * @return true if the path should not be followed anymore
+	 */
+	public boolean isInvalidated() {
+		return invalidated;
+	}
+	/**
+	 * Marks the path as not to be followed anymore.
+	 */
+	void invalidate() {
+		invalidated=true;
+	}
+	/**
+	 * Getter for the index of the last cell of the path.
+	 * @return the index of the target cell or -1 if the path is empty
+	 */
+	public int getTarget() {
+		return start==end ? -1 : cells[end-1];
+	}
+	/**
+	 * Returns the cell reached by a direction of the path.
+	 * @param i position in the path, counted from the first direction of the generated path
+	 * @return index of the cell
+	 */
+	int getCell(int i) {
+		return cells[i];
+	}
+	/**
+	 * Getter for the position of the next direction, counted from the first direction of the generated path.
+	 * @return the position of the next direction
+	 */
+	int getStart() {
+		return start;
+	}
+	/**
+	 * Getter for the end of the path, counted from the first direction of the generated path.
+	 * @return the position after the last direction
+	 */
+	int getEnd() {
+		return end;
+	}
+	/**
+	 * Empties the path and makes room for a new path with a given length.
+	 * The directions must be written with set(...) afterwards.
+	 * @param length length of the new path
+	 */
+	void reset(int length) {
+		if(directions.length<length) {
+			int capacity = Math.max(length, directions.length*2);
+			directions = new byte[capacity];
+			cells = new int[capacity];
+		}
+		start=0;
+		end=length;
+		invalidated=false;
+	}
+	/**
+	 * Writes a direction of the path.
+	 * @param i position of the direction in the path
+	 * @param direction ordinal of the direction
+	 * @param cell index of the cell reached by the direction
+	 */
+	void set(int i, int direction, int cell) {
+		directions[i]=(byte)direction;
+		cells[i]=cell;
+	}
+}
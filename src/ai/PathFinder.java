@@ -0,0 +1,39 @@
+package ai;
+/**
+ * Interface for the path finding algorithms snakes can use.
+ * A path finder works on the padded cell indices of a GridView and writes its result into a reusable Path.
+ * Implementations keep their buffers between calls, so one instance must not be used by two threads at the same time.
+ *
+ */
+public interface PathFinder {
+	/**
+	 * Finds a shortest path from a cell to a goal cell.
+	 * Only EMPTY cells are walked through, the goal cell may have any type.
+	 * @param map the state of the map to search on
+	 * @param start index of the start cell
+	 * @param goal index of the goal cell
+	 * @param path the path to be filled, it is left empty if the goal can not be reached
+	 * @return true if a path is found
+	 */
+	public boolean findPath(GridView map, int start, int goal, Path path);
+	/**
+	 * Finds a shortest path from a cell to a food when there may be more than one food on the map.
+	 * By default the path goes to the given nearest food, a path finder which can stop at any food overrides this
+	 * and finds the food which is the nearest by walking distance.
+	 * @param map the state of the map to search on
+	 * @param start index of the start cell
+	 * @param nearestFood index of the food which is the nearest by Manhattan distance
+	 * @param path the path to be filled, it is left empty if no food can be reached
+	 * @return true if a path is found
+	 */
+	public default boolean findPathToFood(GridView map, int start, int nearestFood, Path path) {
+		return findPath(map, start, nearestFood, path);
+	}
+	/**
+	 * Returns the number of cells the last search expanded, which measures the work of a search independent of the time.
+	 * @return number of expanded cells or -1 if the path finder does not count them
+	 */
+	public default int getExpandedNodes() {
+		return -1;
+	}
+}
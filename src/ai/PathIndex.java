@@ -0,0 +1,142 @@
+package ai;
+
+import java.util.Arrays;
+/**
+ * Class representing an index from cells to the cached paths which cross them.
+ * Every cell of a registered path is an entry in a doubly linked list of that cell.
+ * The entries are kept in primitive arrays with a free list, so registering a path does not create garbage.
+ * When a cell changes in a way that matters for paths, only the paths crossing it are invalidated.
+ *
+ */
+public class PathIndex {
+	private int[] cellHeads = new int[0];
+	private Path[] entryPaths = new Path[64];
+	private int[] entryPositions = new int[64];
+	private int[] entryNext = new int[64];
+	private int[] entryPrev = new int[64];
+	private int[] entryCells = new int[64];
+	private int freeHead = -1;
+	private int used = 0;
+	private long invalidations = 0;
+	/**
+	 * Registers the remaining cells of a path, the cells registered before for the same path are removed.
+	 * An empty path is only removed from the index.
+	 * @param path the path of a snake
+	 * @param cellCount number of cells of the padded grid
+	 */
+	public void update(Path path, int cellCount) {
+		if(cellHeads.length<cellCount) {
+			int oldLength = cellHeads.length;
+			cellHeads = Arrays.copyOf(cellHeads, cellCount);
+			Arrays.fill(cellHeads, oldLength, cellCount, -1);
+		}
+		remove(path);
+		int start = path.getStart();
+		int end = path.getEnd();
+		if(path.entries.length<end) {
+			path.entries = new int[Math.max(end, path.entries.length*2)];
+		}
+		for(int i=start;i<end;i++) {
+			int cell = path.getCell(i);
+			int entry = allocate();
+			entryPaths[entry]=path;
+			entryPositions[entry]=i;
+			entryCells[entry]=cell;
+			entryPrev[entry]=-1;
+			entryNext[entry]=cellHeads[cell];
+			if(cellHeads[cell]>=0) {
+				entryPrev[cellHeads[cell]]=entry;
+			}
+			cellHeads[cell]=entry;
+			path.entries[i]=entry;
+		}
+		path.registeredFrom=start;
+		path.registeredTo=end;
+	}
+	/**
+	 * Removes all entries of a path from the index.
+	 * @param path the path will be removed
+	 */
+	public void remove(Path path) {
+		for(int i=path.registeredFrom;i<path.registeredTo;i++) {
+			int entry = path.entries[i];
+			// The entry may have been released by invalidate(...) and reused by another path
+			if(entryPaths[entry]==path && entryPositions[entry]==i) {
+				release(entry);
+			}
+		}
+		path.registeredFrom=0;
+		path.registeredTo=0;
+	}
+	/**
+	 * Invalidates the paths which still have to cross a cell.
+	 * Entries of paths which have already passed the cell are only removed.
+	 * @param cell index of the changed cell
+	 * @return number of invalidated paths
+	 */
+	public int invalidate(int cell) {
+		if(cell>=cellHeads.length) {
+			return 0;
+		}
+		int count = 0;
+		while(cellHeads[cell]>=0) {
+			int entry = cellHeads[cell];
+			Path path = entryPaths[entry];
+			if(entryPositions[entry]>=path.getStart()) {
+				path.invalidate();
+				remove(path);
+				count++;
+			}else {
+				release(entry);
+			}
+		}
+		invalidations+=count;
+		return count;
+	}
+	/**
+	 * Getter for the total number of invalidated paths.
+	 * @return number of invalidated paths since the index was created
+	 */
+	public long getInvalidations() {
+		return invalidations;
+	}
+	/**
+	 * Takes an entry from the free list or from the end of the entry arrays.
+	 * @return index of the new entry
+	 */
+	private int allocate() {
+		if(freeHead>=0) {
+			int entry = freeHead;
+			freeHead = entryNext[entry];
+			return entry;
+		}
+		if(used==entryPaths.length) {
+			int capacity = used*2;
+			entryPaths = Arrays.copyOf(entryPaths, capacity);
+			entryPositions = Arrays.copyOf(entryPositions, capacity);
+			entryNext = Arrays.copyOf(entryNext, capacity);
+			entryPrev = Arrays.copyOf(entryPrev, capacity);
+			entryCells = Arrays.copyOf(entryCells, capacity);
+		}
+		return used++;
+	}
+	/**
+	 * Unlinks an entry from the list of its cell and puts it to the free list.
+	 * @param entry index of the entry
+	 */
+	private void release(int entry) {
+		int next = entryNext[entry];
+		int prev = entryPrev[entry];
+		if(prev>=0) {
+			entryNext[prev]=next;
+		}else {
+			cellHeads[entryCells[entry]]=next;
+		}
+		if(next>=0) {
+			entryPrev[next]=prev;
+		}
+		entryPaths[entry]=null;
+		entryNext[entry]=freeHead;
+		freeHead=entry;
+	}
+}
@@ -0,0 +1,70 @@
+package ai;
+/**
+ * Class representing a seeded random number generator which can be split into independent generators.
+ * The generator is SplitMix64: the state is one long which is advanced by a constant and mixed into the output.
+ * A world has one generator and gives every snake a generator split from it, so the random choices of a snake
+ * do not depend on which thread runs it and the same seed always gives the same simulation.
+ *
+ */
+public class SplitRandom {
+	private static final long GAMMA = 0x9e3779b97f4a7c15L;
+	private long state;
+	/**
+	 * Creates a generator with a seed.
+	 * @param seed the seed of the generator
+	 */
+	public SplitRandom(long seed) {
+		this.state = seed;
+	}
+	/**
+	 * Creates a new generator whose seed is taken from this generator.
+	 * The new generator and this generator give independent numbers.
+	 * @return the new generator
+	 */
+	public SplitRandom split() {
+		return new SplitRandom(mix(nextLong()));
+	}
+	/**
+	 * Returns the next random long.
+	 * @return a uniformly distributed long
+	 */
+	public long nextLong() {
+		state += GAMMA;
+		return mix(state);
+	}
+	/**
+	 * Returns a random int between 0 (inclusive) and a bound (exclusive).
+	 * Numbers from the top of the range which would make the result biased are thrown away.
+	 * @param bound the bound, must be positive
+	 * @return a uniformly distributed int in [0, bound)
+	 */
+	public int nextInt(int bound) {
+		if(bound<=0) {
+			throw new IllegalArgumentException("bound must be positive");
+		}
+		int bits = (int)(nextLong()>>>33);
+		int value = bits%bound;
+		while(bits-value+(bound-1)<0) {
+			bits = (int)(nextLong()>>>33);
+			value = bits%bound;
+		}
+		return value;
+	}
+	/**
+	 * Getter for the state of the generator, a generator created with this state as seed continues the same numbers.
+	 * @return the state
+	 */
+	public long getState() {
+		return state;
+	}
+	/**
+	 * Mixes the bits of a long with the finalizer of SplitMix64.
+	 * @param z the long
+	 * @return the mixed long
+	 */
+	private static long mix(long z) {
+		z = (z^(z>>>30))*0xbf58476d1ce4e5b9L;
+		z = (z^(z>>>27))*0x94d049bb133111ebL;
+		return z^(z>>>31);
+	}
+}
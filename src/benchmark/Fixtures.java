@@ -0,0 +1,82 @@
+package benchmark;
+
+import ai.GridView;
+import ai.SplitRandom;
+import elements.Segment;
+import elements.Snake;
+import snakesimulator.SegmentGrid;
+import snakesimulator.SnakeWorld;
+/**
+ * Class creating the worlds and maps the benchmarks run on.
+ * All fixtures are seeded, so every run of a benchmark starts from the same state.
+ *
+ */
+final class Fixtures {
+	static final long SEED = 42;
+
+	private Fixtures() {
+	}
+	/**
+	 * Lets the snakes of a world eat and reproduce until there are enough snakes.
+	 * The world gets one food for every four snakes wanted, so the population grows quickly.
+	 * @param world a world with no snakes
+	 * @param snakeCount number of snakes wanted
+	 * @param maxTicks number of ticks after which the world is returned even if it has fewer snakes
+	 */
+	static void populate(SnakeWorld world, int snakeCount, long maxTicks) {
+		world.addElement(Snake.generateFirstSnake());
+		world.addFoods(Math.max(1, snakeCount/4));
+		for(long tick=0;tick<maxTicks && world.getSnakes().size()<snakeCount;tick++) {
+			world.step();
+		}
+	}
+	/**
+	 * Creates a map with no segments.
+	 * @param size width and height of the map
+	 * @return the map
+	 */
+	static SegmentGrid openMap(int size) {
+		return new SegmentGrid(size, size);
+	}
+	/**
+	 * Creates a map whose walls make one long corridor.
+	 * Every second column is a wall with a gap at the bottom or the top, in turns.
+	 * @param size width and height of the map
+	 * @return the map
+	 */
+	static SegmentGrid mazeMap(int size) {
+		SegmentGrid grid = new SegmentGrid(size, size);
+		for(int x=1;x<size;x+=2) {
+			int gap = (x/2)%2==0 ? size-1 : 0;
+			for(int y=0;y<size;y++) {
+				if(y!=gap) {
+					wall(grid, x, y);
+				}
+			}
+		}
+		return grid;
+	}
+	/**
+	 * Fills random cells of a map with walls.
+	 * @param grid the map
+	 * @param ratio the ratio of cells to fill
+	 */
+	static void fill(SegmentGrid grid, double ratio) {
+		SplitRandom random = new SplitRandom(SEED);
+		int cells = grid.getGridWidth()*grid.getGridHeight();
+		int target = (int)(cells*ratio);
+		while(cells-grid.getFreeCellCount()<target) {
+			int cell = grid.randomFreeCell(random);
+			wall(grid, grid.xOf(cell), grid.yOf(cell));
+		}
+	}
+	/**
+	 * Puts a wall on a cell of a map.
+	 * @param grid the map
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 */
+	static void wall(SegmentGrid grid, int x, int y) {
+		grid.set(x, y, new Segment(x, y), GridView.WALL);
+	}
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ai.SplitRandom;
+import elements.Food;
+import snakesimulator.SegmentGrid;
+/**
+ * Benchmark of placing a food on a map whose cells are filled up to a given ratio.
+ * The food is not put on the map, so the fill ratio stays the same during the benchmark.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FoodBenchmark {
+	private static final int SIZE = 100;
+	/**
+	 * The ratio of filled cells.
+	 */
+	@Param({"0.0", "0.5", "0.9", "0.99"})
+	public double fillRatio;
+	private final SplitRandom random = new SplitRandom(Fixtures.SEED);
+	private SegmentGrid grid;
+
+	/**
+	 * Creates the filled map.
+	 */
+	@Setup
+	public void setUp() {
+		grid = Fixtures.openMap(SIZE);
+		Fixtures.fill(grid, fillRatio);
+	}
+	/**
+	 * Places a food.
+	 * @return the food, or null if the map is full
+	 */
+	@Benchmark
+	public Food generateFood() {
+		return grid.generateFood(random);
+	}
+}
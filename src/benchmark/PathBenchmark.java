@@ -0,0 +1,103 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ai.AStarSearch;
+import ai.BidirectionalSearch;
+import ai.BreadthFirstSearch;
+import ai.Information;
+import ai.JumpPointSearch;
+import ai.Path;
+import ai.PathFinder;
+import elements.Food;
+import elements.Segment;
+import snakesimulator.SegmentGrid;
+/**
+ * Benchmark of generating a path from one corner of a map to the food in the other corner.
+ * The maps are an open map, a maze with one long corridor and a map crowded with randomly placed walls.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathBenchmark {
+	/**
+	 * The kinds of maps a path is generated on.
+	 */
+	public enum MapKind{OPEN, MAZE, CROWDED}
+	/**
+	 * The path finders which are compared.
+	 */
+	public enum Finder{
+		BREADTH_FIRST(BreadthFirstSearch::new),
+		A_STAR(AStarSearch::new),
+		BIDIRECTIONAL(BidirectionalSearch::new),
+		JUMP_POINT(JumpPointSearch::new);
+
+		private final Supplier<? extends PathFinder> factory;
+
+		private Finder(Supplier<? extends PathFinder> factory) {
+			this.factory = factory;
+		}
+	}
+	private static final double CROWDED_RATIO = 0.3;
+	private static final int SIZE = 101;
+	/**
+	 * The kind of the map.
+	 */
+	@Param
+	public MapKind mapKind;
+	/**
+	 * The path finder to use.
+	 */
+	@Param
+	public Finder finder;
+	private final Path path = new Path();
+	private final Information information = new Information();
+
+	/**
+	 * Creates the map with the head and the food.
+	 */
+	@Setup
+	public void setUp() {
+		SegmentGrid grid;
+		if(mapKind==MapKind.MAZE) {
+			grid = Fixtures.mazeMap(SIZE);
+		}else {
+			grid = Fixtures.openMap(SIZE);
+		}
+		Segment head = new Segment(0, 0);
+		Food food = new Food(SIZE-1, SIZE-1);
+		grid.set(0, 0, head);
+		grid.set(SIZE-1, SIZE-1, food);
+		if(mapKind==MapKind.CROWDED) {
+			Fixtures.fill(grid, CROWDED_RATIO);
+		}
+		information.reset(grid, head.getX(), head.getY(), (map, x, y) -> map.indexOf(food.getX(), food.getY()),
+				finder.factory.get(), null);
+	}
+	/**
+	 * Generates the path.
+	 * @return length of the path, -1 if there is no path
+	 */
+	@Benchmark
+	public int generatePath() {
+		return information.generatePath(path) ? path.size() : -1;
+	}
+}
@@ -0,0 +1,57 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import snakesimulator.SnakeSimulator;
+/**
+ * Benchmark of drawing one frame of the simulator to its GridPanel.
+ * The world is grown to a given number of snakes and is not stepped while drawing.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+	private static final int SQUARE_SIZE = 8;
+	/**
+	 * Width and height of the world and the number of snakes it is grown to, as size:snakes.
+	 */
+	@Param({"40:10", "100:100", "200:1000"})
+	public String world;
+	private SnakeSimulator game;
+
+	/**
+	 * Creates the simulator and grows its world.
+	 */
+	@Setup
+	public void setUp() {
+		String[] parts = world.split(":");
+		int size = Integer.parseInt(parts[0]);
+		game = new SnakeSimulator(size, size, SQUARE_SIZE, 60, Fixtures.SEED);
+		Fixtures.populate(game.getWorld(), Integer.parseInt(parts[1]), 100000);
+	}
+	/**
+	 * Draws the whole world.
+	 * @return number of snakes
+	 */
+	@Benchmark
+	public int redraw() {
+		game.redraw();
+		return game.getWorld().getSnakes().size();
+	}
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import snakesimulator.SnakeWorld;
+/**
+ * Benchmark of one tick of the world, with a given grid size and number of snakes.
+ * The world is grown once per trial and limited to the given number of snakes, so the population stays the same
+ * while the snakes keep eating and reproducing, and every invocation is exactly one tick.
+ * The state still drifts: every iteration continues the world of the last one, so the snakes are longer
+ * and spread differently in later iterations, and the foods move as they are eaten.
+ * Drawing is not included, it is measured by RenderBenchmark.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TickBenchmark {
+	/**
+	 * Width and height of the world and the number of snakes it is grown to, as size:snakes.
+	 */
+	@Param({"40:10", "100:100", "200:1000"})
+	public String world;
+	private SnakeWorld snakeWorld;
+
+	/**
+	 * Grows the world to the number of snakes, which is also its limit.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		String[] parts = world.split(":");
+		int size = Integer.parseInt(parts[0]);
+		int snakes = Integer.parseInt(parts[1]);
+		snakeWorld = new SnakeWorld(size, size, Fixtures.SEED);
+		snakeWorld.setMaxSnakes(snakes);
+		Fixtures.populate(snakeWorld, snakes, 100000);
+	}
+	/**
+	 * Runs one tick of the world.
+	 * @return number of snakes
+	 */
+	@Benchmark
+	public int step() {
+		snakeWorld.step();
+		return snakeWorld.getSnakes().size();
+	}
+}
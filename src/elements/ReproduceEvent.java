@@ -0,0 +1,26 @@
+package elements;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+/**
+ * Flight recorder event of a snake splitting itself in Snake.reproduce().
+ *
+ */
+@Name("snakesimulator.Reproduce")
+@Label("Reproduce")
+@Category({"Snake Simulator", "Elements"})
+@Description("A snake gave half of its body to a new snake")
+class ReproduceEvent extends Event{
+	@Label("Head X")
+	int headX;
+	@Label("Head Y")
+	int headY;
+	@Label("Child Size")
+	int childSize;
+	@Label("Ring Buffer")
+	@Description("The snakes keep their bodies in a ring buffer")
+	boolean ringBuffer;
+}
@@ -1,37 +1,139 @@
 package elements;
 
 import java.awt.Color;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.List;
-import java.util.Queue;
 
 
 import ability.Direction;
 import ai.Action;
 import ai.Information;
+import ai.Path;
+import ai.SplitRandom;
 /**
  * Class representing the snakes in the game.
  * Snakes is objects like linked lists. They has head Segment and tail Segment.
+ * A snake can also keep its body in a ring buffer of packed cells instead of segments,
+ * then moving, eating and reproducing only change integers and the snake has no Segment objects.
+ * A packed cell keeps every coordinate in 16 bits, so a ring buffer only works on grids of at most
+ * MAX_RING_COORDINATE+1 squares along each side.
  * Has a field(path)that is the shortest path to the food.
  * @author Halil Umut zdemir
  *
  */
 public class Snake {
+	/**
+	 * The largest coordinate a snake keeping its body in a ring buffer can have.
+	 */
+	public static final int MAX_RING_COORDINATE = 0xFFFF;
 	private static final int MAX_SIZE = 8;
 	private static final Color HEAD_COLOR = Color.BLUE;
 	private static final Color TAIL_COLOR=Color.RED;
 	Segment head=null;
 	Segment tail=null;
 	private int size=0;
-	private Queue<Direction> path;
+	private int[] ring=null;
+	private int ringHead=0;
+	private Path path = new Path();
 	private boolean newPathCheck=true;
+	private SplitRandom random = new SplitRandom(System.nanoTime());
+	/**
+	 * Setter for the random number generator of the snake.
+	 * The game gives every snake its own generator, so the random moves do not depend on the other snakes or threads.
+	 * @param random the generator of the snake
+	 */
+	public void setRandom(SplitRandom random) {
+		this.random = random;
+	}
+	/**
+	 * Getter for the random number generator of the snake.
+	 * @return the generator of the snake
+	 */
+	public SplitRandom getRandom() {
+		return random;
+	}
+	/**
+	 * Getter for the path of the snake.
+	 * @return the cached path to the food
+	 */
+	public Path getPath() {
+		return path;
+	}
 	/**
 	 * Setter for newPathCheck.
 	 * NewPathCheck is true if snake needs a new path, is false if snake doesn't need a new path.
+	 * A path invalidated by the game is generated again even if newPathCheck is false.
 	 * @param newPathCheck new value of newPathCheck
 	 */
 	public void setNewPathCheck(boolean newPathCheck) {
 		this.newPathCheck = newPathCheck;
 	}
+	/**
+	 * Writes the snake for a snapshot of the world: its body storage, its cells from the head to the tail,
+	 * the state of its random number generator, its cached path and newPathCheck.
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(ring==null ? 0 : ring.length);
+		out.writeInt(size);
+		if(ring!=null) {
+			for(int i=0;i<size;i++) {
+				out.writeInt(cell(i)&0xFFFF);
+				out.writeInt(cell(i)>>>16);
+			}
+		}else {
+			for(Segment current=head;current!=null;current=current.next) {
+				out.writeInt(current.getX());
+				out.writeInt(current.getY());
+			}
+		}
+		out.writeLong(random.getState());
+		out.writeBoolean(newPathCheck);
+		path.writeTo(out);
+	}
+	/**
+	 * Reads a snake written by writeTo(...), the snake continues exactly like the written one.
+	 * The sizes are checked before anything is allocated, so a damaged input can not make a huge snake.
+	 * @param in the input
+	 * @param maxCells number of cells of the grid, no snake or path is longer than this
+	 * @return the snake
+	 * @throws IOException if the input can not be read or is not a valid snake
+	 */
+	public static Snake readFrom(DataInput in, int maxCells) throws IOException {
+		Snake snake = new Snake();
+		int ringCapacity = in.readInt();
+		int size = in.readInt();
+		if(size<1 || size>maxCells) {
+			throw new IOException("Invalid snake size "+size);
+		}
+		if(ringCapacity!=0 && (Integer.bitCount(ringCapacity)!=1 || ringCapacity<Math.max(size, MAX_SIZE)
+				|| ringCapacity>2*Math.max(maxCells, MAX_SIZE))) {
+			throw new IOException("Invalid ring buffer capacity "+ringCapacity+" for a snake of size "+size);
+		}
+		if(ringCapacity>0) {
+			snake.ring = new int[ringCapacity];
+			for(int i=0;i<size;i++) {
+				int x = in.readInt();
+				int y = in.readInt();
+				if(x<0 || x>MAX_RING_COORDINATE || y<0 || y>MAX_RING_COORDINATE) {
+					throw new IOException("The cell ("+x+", "+y+") does not fit a ring buffer");
+				}
+				snake.ring[i]=pack(x, y);
+			}
+			snake.size=size;
+		}else {
+			for(int i=0;i<size;i++) {
+				snake.add(new Segment(in.readInt(), in.readInt()));
+			}
+		}
+		snake.random = new SplitRandom(in.readLong());
+		snake.newPathCheck = in.readBoolean();
+		snake.path.readFrom(in, maxCells);
+		return snake;
+	}
 	/**
 	 * A method for adding a segment at the end of a snake.
 	 * @param newSegment new Segment which will be added to snake
@@ -82,6 +184,131 @@ public class Snake {
 		size--;
 		return temp;
 	}
+	/**
+	 * Moves the body of the snake from its segments to a ring buffer of packed cells.
+	 * After this call getHead() and getTail() return null, the cells are read with getX(i) and getY(i).
+	 * The snake must stay on cells whose coordinates are at most MAX_RING_COORDINATE.
+	 */
+	public void useRingBuffer() {
+		if(ring!=null) {
+			return;
+		}
+		ring = new int[Integer.highestOneBit(Math.max(size, MAX_SIZE)-1)<<1];
+		int i=0;
+		for(Segment current=head;current!=null;current=current.next) {
+			ring[i++]=pack(current.getX(), current.getY());
+		}
+		ringHead=0;
+		head=null;
+		tail=null;
+	}
+	/**
+	 * Checks the snake keeps its body in a ring buffer.
+	 * @return true if the body is in a ring buffer, false if it is made of segments
+	 */
+	public boolean usesRingBuffer() {
+		return ring!=null;
+	}
+	/**
+	 * Getter for the number of segments of the snake.
+	 * @return length of the snake
+	 */
+	public int getSize() {
+		return size;
+	}
+	/**
+	 * Returns the x coordinate of a segment of the snake.
+	 * @param i position of the segment, 0 is the head
+	 * @return x coordinate
+	 */
+	public int getX(int i) {
+		if(ring!=null) {
+			return cell(i)&0xFFFF;
+		}
+		return segment(i).getX();
+	}
+	/**
+	 * Returns the y coordinate of a segment of the snake.
+	 * @param i position of the segment, 0 is the head
+	 * @return y coordinate
+	 */
+	public int getY(int i) {
+		if(ring!=null) {
+			return cell(i)>>>16;
+		}
+		return segment(i).getY();
+	}
+	/**
+	 * Getter for the x coordinate of the head.
+	 * @return x coordinate of the head
+	 */
+	public int getHeadX() {
+		return ring!=null ? cell(0)&0xFFFF : head.getX();
+	}
+	/**
+	 * Getter for the y coordinate of the head.
+	 * @return y coordinate of the head
+	 */
+	public int getHeadY() {
+		return ring!=null ? cell(0)>>>16 : head.getY();
+	}
+	/**
+	 * Getter for the x coordinate of the tail.
+	 * @return x coordinate of the tail
+	 */
+	public int getTailX() {
+		return ring!=null ? cell(size-1)&0xFFFF : tail.getX();
+	}
+	/**
+	 * Getter for the y coordinate of the tail.
+	 * @return y coordinate of the tail
+	 */
+	public int getTailY() {
+		return ring!=null ? cell(size-1)>>>16 : tail.getY();
+	}
+	/**
+	 * Returns a segment of a snake made of segments.
+	 * @param i position of the segment, 0 is the head
+	 * @return the segment
+	 */
+	private Segment segment(int i) {
+		Segment current = head;
+		while(i-->0) {
+			current=current.next;
+		}
+		return current;
+	}
+	/**
+	 * Returns a packed cell of the ring buffer.
+	 * @param i position of the segment, 0 is the head
+	 * @return the packed cell
+	 */
+	private int cell(int i) {
+		return ring[(ringHead+i)&(ring.length-1)];
+	}
+	/**
+	 * Puts a new head before the current head in the ring buffer.
+	 * When the snake keeps its length, the slot before the head is the slot of the tail, so the tail is overwritten.
+	 * @param x x coordinate of the new head
+	 * @param y y coordinate of the new head
+	 */
+	private void pushHead(int x, int y) {
+		ringHead=(ringHead-1)&(ring.length-1);
+		ring[ringHead]=pack(x, y);
+	}
+	/**
+	 * Packs the coordinates of a cell into one int.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return the packed cell
+	 * @throws IllegalArgumentException if a coordinate is negative or larger than MAX_RING_COORDINATE
+	 */
+	private static int pack(int x, int y) {
+		if(((x|y)&~MAX_RING_COORDINATE)!=0) {
+			throw new IllegalArgumentException("The cell ("+x+", "+y+") does not fit a ring buffer");
+		}
+		return (y<<16)|x;
+	}
 	/**
 	 * Creates the first snake for game.
 	 * @return the first snake
@@ -110,6 +337,10 @@ public class Snake {
 		}else if(direction==Direction.RIGHT) {
 			dx++;
 		}
+		if(ring!=null) {
+			pushHead(getHeadX()+dx, getHeadY()+dy);
+			return;
+		}
 		Segment temp = this.removeLast();
 		temp.setLocation(this.head.getX()+dx, this.head.getY()+dy);
 		this.addToBegining(temp);
@@ -119,25 +350,62 @@ public class Snake {
 	 * @return the new snake 
 	 */
 	public Snake reproduce() {
+		ReproduceEvent event = new ReproduceEvent();
+		event.begin();
 		Snake newSnake = new Snake();
-		for(int i=0;i<MAX_SIZE/2;i++) {
-			newSnake.add(this.removeLast());
+		if(ring!=null) {
+			newSnake.ring = new int[ring.length];
+			for(int i=0;i<MAX_SIZE/2;i++) {
+				newSnake.ring[i]=cell(--size);
+			}
+			newSnake.size=MAX_SIZE/2;
+		}else {
+			for(int i=0;i<MAX_SIZE/2;i++) {
+				newSnake.add(this.removeLast());
+			}
+		}
+		if(event.shouldCommit()) {
+			event.headX=getHeadX();
+			event.headY=getHeadY();
+			event.childSize=newSnake.getSize();
+			event.ringBuffer=ring!=null;
+			event.commit();
 		}
 		return newSnake;
 	}
 	/**
 	 * Getter for head of snake
-	 * @return the head of snake
+	 * @return the head of snake, null if the snake keeps its body in a ring buffer
 	 */
 	public Segment getHead() {
 		return head;
 	}
+	/**
+	 * Getter for tail of snake
+	 * @return the last segment of snake, null if the snake keeps its body in a ring buffer
+	 */
+	public Segment getTail() {
+		return tail;
+	}
 	/**
 	 * A method for eating food by a snake
 	 * @param food the food will be ate by snake
-	 * @return
+	 * @return the new head segment, null if the snake keeps its body in a ring buffer
 	 */
 	public Segment eat(Food food) {
+		if(ring!=null) {
+			if(size==ring.length) {
+				int[] grown = new int[ring.length*2];
+				for(int i=0;i<size;i++) {
+					grown[i]=cell(i);
+				}
+				ring=grown;
+				ringHead=0;
+			}
+			pushHead(food.getX(), food.getY());
+			size++;
+			return null;
+		}
 		Segment newSegment =new Segment(food.getX(),food.getY());
 		addToBegining(newSegment);
 		return newSegment;
@@ -151,41 +419,47 @@ public class Snake {
      */
 	public Action chooseAction(Information info) {
 		if(size==MAX_SIZE) {
-			return new Action(Action.Type.REPRODUCE);
+			return Action.of(Action.Type.REPRODUCE);
 		}
 		if(info.getSegmentDown() instanceof Food) {
-			return new Action(Action.Type.EAT,Direction.DOWN);
+			return Action.of(Action.Type.EAT,Direction.DOWN);
 		}
 		if(info.getSegmentUp() instanceof Food) {
-			return new Action(Action.Type.EAT,Direction.UP);
+			return Action.of(Action.Type.EAT,Direction.UP);
 		}
 		if(info.getSegmentLeft() instanceof Food) {
-			return new Action(Action.Type.EAT,Direction.LEFT);
+			return Action.of(Action.Type.EAT,Direction.LEFT);
 		}
 		if(info.getSegmentRight() instanceof Food) {
-			return new Action(Action.Type.EAT,Direction.RIGHT);
+			return Action.of(Action.Type.EAT,Direction.RIGHT);
 		}
 		List<Direction> freeDirections = info.getFreeDirections();
 		if(freeDirections.isEmpty()) {
-			return new Action(Action.Type.STAY);
+			return Action.of(Action.Type.STAY);
+		}
+		if(info.hasDistanceField()) {
+			Direction direction = info.getDirectionFromField();
+			if(direction!=null) {
+				return Action.of(Action.Type.MOVE,direction);
+			}
+			return Action.of(Action.Type.MOVE,Information.getRandomDirection(freeDirections,random));
 		}
-		if(path==null||newPathCheck) {
-			path=info.generatePath();
+		if(newPathCheck||path.isInvalidated()) {
+			info.generatePath(path);
 			newPathCheck=false;
 		}
 		if(!path.isEmpty()) {
 			if(freeDirections.contains(path.peek())) {
-				return new Action(Action.Type.MOVE,path.poll());
+				return Action.of(Action.Type.MOVE,path.poll());
 			}else {
-				path=info.generatePath();
-				if(!path.isEmpty()) {
+				if(info.generatePath(path)) {
 					if(freeDirections.contains(path.peek())) {
-						return new Action(Action.Type.MOVE,path.poll());
+						return Action.of(Action.Type.MOVE,path.poll());
 					}
 				}
 			}
 		}
 		newPathCheck=true;
-		return new Action(Action.Type.MOVE,Information.getRandomDirection(freeDirections));
+		return Action.of(Action.Type.MOVE,Information.getRandomDirection(freeDirections,random));
 	}
 }
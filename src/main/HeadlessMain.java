@@ -0,0 +1,82 @@
+package main;
+
+import java.io.IOException;
+
+import javax.management.JMException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import elements.Snake;
+import snakesimulator.BodyStorage;
+import snakesimulator.Navigation;
+import snakesimulator.SimulationLoop;
+import snakesimulator.SimulationMonitor;
+import snakesimulator.SnakeWorld;
+import snakesimulator.TickMode;
+import snakesimulator.TickProfiler;
+import snakesimulator.WorldSnapshot;
+
+/**
+ * Entry point for running the simulation without any display.
+ * Usage: HeadlessMain [gridWidth gridHeight ticks [tickMode [navigation [foods [seed [bodyStorage [profile [snapshot [shards]]]]]]]]]
+ * If profile is true, the phases of the ticks are measured and printed when the JVM exits.
+ * If a snapshot file is given, the world is resumed from it if it exists, and saved to it after the ticks, "-" for none.
+ * Shards is the number of stripes of SHARDED mode, SnakeWorld.DEFAULT_SHARD_COUNT by default.
+ * The world runs in a SimulationLoop whose MBean is registered, so it can be watched, paused and slowed down with JConsole.
+ */
+public class HeadlessMain {
+	/**
+	 * Runs a world for the given number of ticks and prints the throughput.
+	 *
+	 * @param args grid width, grid height, number of ticks, tick mode, navigation, number of foods, seed, body storage, profile, snapshot and number of shards
+	 * @throws IOException if the snapshot can not be read or written
+	 * @throws JMException if the MBean can not be registered
+	 */
+	public static void main(String[] args) throws IOException, JMException {
+		int gridWidth = args.length>0 ? Integer.parseInt(args[0]) : 40;
+		int gridHeight = args.length>1 ? Integer.parseInt(args[1]) : 40;
+		long ticks = args.length>2 ? Long.parseLong(args[2]) : 100000;
+		Path snapshot = args.length>9 && !args[9].equals("-") ? Paths.get(args[9]) : null;
+		SnakeWorld world;
+		if(snapshot!=null && Files.exists(snapshot)) {
+			// The snapshot has its own size, modes, number of shards and seed
+			world = WorldSnapshot.load(snapshot);
+			System.out.printf("resumed %s at tick %d%n", snapshot, world.getTickCount());
+		}else {
+			long seed = args.length>6 ? Long.parseLong(args[6]) : System.nanoTime();
+			world = new SnakeWorld(gridWidth, gridHeight, seed);
+			if(args.length>3) {
+				world.setTickMode(TickMode.valueOf(args[3]));
+			}
+			if(args.length>4) {
+				world.setNavigation(Navigation.valueOf(args[4]));
+			}
+			if(args.length>7) {
+				world.setBodyStorage(BodyStorage.valueOf(args[7]));
+			}
+			if(args.length>10) {
+				world.setShardCount(Integer.parseInt(args[10]));
+			}
+			world.addElement(Snake.generateFirstSnake());
+			world.addFoods(args.length>5 ? Integer.parseInt(args[5]) : 1);
+		}
+		if(args.length>8 && Boolean.parseBoolean(args[8])) {
+			TickProfiler profiler = new TickProfiler();
+			world.setProfiler(profiler);
+			profiler.dumpOnShutdown();
+		}
+		SimulationLoop loop = new SimulationLoop(world, 0);
+		SimulationMonitor.register(world, loop);
+		long start = System.nanoTime();
+		loop.run(ticks);
+		long elapsed = System.nanoTime() - start;
+		System.out.printf("%d ticks in %.3f s (%.0f ticks/s), %d snakes%n",
+				ticks, elapsed / 1e9, ticks * 1e9 / elapsed, world.getSnakes().size());
+		if(snapshot!=null) {
+			start = System.nanoTime();
+			WorldSnapshot.save(world, snapshot);
+			System.out.printf("saved %s at tick %d in %.3f s%n", snapshot, world.getTickCount(), (System.nanoTime() - start) / 1e9);
+		}
+	}
+}
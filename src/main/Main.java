@@ -2,7 +2,6 @@ package main;
 
 import java.awt.*;
 
-import elements.Food;
 import elements.Snake;
 import snakesimulator.SnakeSimulator;
 import ui.ApplicationWindow;
@@ -23,13 +22,18 @@ public class Main {
 				// Create game
 				// You can change the world width and height, size of each grid square in pixels or the game speed
 				SnakeSimulator game = new SnakeSimulator(40,40,17,100);
+				// Uncomment to tick the world on its own thread at the given ticks per second (0 for as fast as possible)
+				// The game speed above is then only the frame rate of the display
+				// game.runOnOwnThread(10000);
+				// Watch and control the simulation with JMX tools like JConsole
+				game.registerMBean();
 				
 				// Create and add first snake
 				game.addElement(Snake.generateFirstSnake());
 				
 				
 				// Create and add food
-				game.addElement(Food.generateFood(game.getSegmentMap()));
+				game.getWorld().addFoods(1);
 				
 				
 				
@@ -0,0 +1,7 @@
+package snakesimulator;
+/**
+ * Enum representing how snakes keep their bodies.
+ * SEGMENTS: every segment of a snake is a Segment object linked to the next and the previous one.
+ * RING_BUFFER: a snake keeps its cells packed in a ring buffer of ints and the map stores only the cell types of its body.
+ */
+public enum BodyStorage {SEGMENTS,RING_BUFFER}
@@ -0,0 +1,87 @@
+package snakesimulator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Class representing the list of cells of a SegmentGrid which changed since the list was last cleared.
+ * Every changed cell is in the list once, with the type it has now, so a renderer only redraws these cells.
+ * Cells are added with an atomic counter, so the snakes of different shards can move at the same time.
+ *
+ */
+public class CellChanges {
+	private final int stride;
+	private final int[] cells;
+	private final byte[] types;
+	private final AtomicInteger count = new AtomicInteger();
+	/**
+	 * Creates an empty list.
+	 * @param stride the stride of the grid
+	 * @param capacity number of cells in the grid
+	 */
+	CellChanges(int stride, int capacity) {
+		this.stride = stride;
+		cells = new int[capacity];
+		types = new byte[capacity];
+	}
+	/**
+	 * Adds a cell to the list, a cell must not be added twice before the list is cleared.
+	 * @param index index of the cell
+	 */
+	void add(int index) {
+		cells[count.getAndIncrement()]=index;
+	}
+	/**
+	 * Copies the current types of the changed cells from the grid.
+	 * @param gridTypes the cell types of the grid
+	 */
+	void updateTypes(byte[] gridTypes) {
+		int size = count.get();
+		for(int i=0;i<size;i++) {
+			types[i]=gridTypes[cells[i]];
+		}
+	}
+	/**
+	 * Removes all cells from the list.
+	 */
+	void clear() {
+		count.set(0);
+	}
+	/**
+	 * Getter for the number of changed cells.
+	 * @return number of cells in the list
+	 */
+	public int size() {
+		return count.get();
+	}
+	/**
+	 * Returns the index of a changed cell in the padded grid.
+	 * @param i position in the list
+	 * @return index of the cell
+	 */
+	public int getCell(int i) {
+		return cells[i];
+	}
+	/**
+	 * Returns the new type of a changed cell.
+	 * @param i position in the list
+	 * @return one of the cell types of GridView
+	 */
+	public byte getType(int i) {
+		return types[i];
+	}
+	/**
+	 * Returns the x coordinate of a changed cell.
+	 * @param i position in the list
+	 * @return x coordinate
+	 */
+	public int getX(int i) {
+		return cells[i]%stride-1;
+	}
+	/**
+	 * Returns the y coordinate of a changed cell.
+	 * @param i position in the list
+	 * @return y coordinate
+	 */
+	public int getY(int i) {
+		return cells[i]/stride-1;
+	}
+}
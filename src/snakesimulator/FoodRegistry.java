@@ -0,0 +1,271 @@
+package snakesimulator;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import ai.FoodLocator;
+import ai.GridView;
+import elements.Food;
+/**
+ * Class representing the index of foods in a world.
+ * Foods are kept in a dense array and every cell knows the slot of the food on it,
+ * so adding, removing and finding foods never scans the grid.
+ * The foods are also linked into square buckets of cells, so the nearest food to a position
+ * is found by looking at the buckets around the position ring by ring.
+ *
+ */
+public class FoodRegistry implements FoodLocator{
+	private static final int BUCKET_SIZE = 8;
+	private final int gridWidth;
+	private final int gridHeight;
+	private Food[] foods = new Food[4];
+	private int size=0;
+	private final int[] slotOfCell;
+	private final int bucketsX;
+	private final int bucketsY;
+	private final int[] bucketHeads;
+	private final int[] nextInBucket;
+	private final int[] prevInBucket;
+	/**
+	 * Creates an empty registry for a grid.
+	 * @param gridWidth number of grid squares along the width
+	 * @param gridHeight number of grid squares along the height
+	 */
+	public FoodRegistry(int gridWidth, int gridHeight) {
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+		slotOfCell = new int[gridWidth*gridHeight];
+		bucketsX = (gridWidth+BUCKET_SIZE-1)/BUCKET_SIZE;
+		bucketsY = (gridHeight+BUCKET_SIZE-1)/BUCKET_SIZE;
+		bucketHeads = new int[bucketsX*bucketsY];
+		Arrays.fill(bucketHeads, -1);
+		nextInBucket = new int[gridWidth*gridHeight];
+		prevInBucket = new int[gridWidth*gridHeight];
+	}
+	/**
+	 * Adds a food to the registry.
+	 * A food on the same cell with an existing food replaces it.
+	 * @param food the new food
+	 */
+	public void add(Food food) {
+		int cell = food.getY()*gridWidth+food.getX();
+		if(slotOfCell[cell]!=0) {
+			foods[slotOfCell[cell]-1]=food;
+			return;
+		}
+		if(size==foods.length) {
+			Food[] grown = new Food[size*2];
+			System.arraycopy(foods, 0, grown, 0, size);
+			foods=grown;
+		}
+		foods[size++]=food;
+		slotOfCell[cell]=size;
+		int bucket = bucketOf(food.getX(), food.getY());
+		prevInBucket[cell]=-1;
+		nextInBucket[cell]=bucketHeads[bucket];
+		if(bucketHeads[bucket]>=0) {
+			prevInBucket[bucketHeads[bucket]]=cell;
+		}
+		bucketHeads[bucket]=cell;
+	}
+	/**
+	 * Removes a food from the registry.
+	 * The last food takes the slot of the removed food.
+	 * @param food the eaten food
+	 */
+	public void remove(Food food) {
+		int cell = food.getY()*gridWidth+food.getX();
+		int slot = slotOfCell[cell]-1;
+		if(slot<0 || foods[slot]!=food) {
+			return;
+		}
+		Food last = foods[--size];
+		foods[slot]=last;
+		foods[size]=null;
+		slotOfCell[last.getY()*gridWidth+last.getX()]=slot+1;
+		slotOfCell[cell]=0;
+		int next = nextInBucket[cell];
+		int prev = prevInBucket[cell];
+		if(prev>=0) {
+			nextInBucket[prev]=next;
+		}else {
+			bucketHeads[bucketOf(food.getX(), food.getY())]=next;
+		}
+		if(next>=0) {
+			prevInBucket[next]=prev;
+		}
+	}
+	/**
+	 * Returns the food at a position.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return the food or null if there is no food at the position
+	 */
+	public Food getFoodAt(int x, int y) {
+		if(x<0 || x>=gridWidth || y<0 || y>=gridHeight) {
+			return null;
+		}
+		int slot = slotOfCell[y*gridWidth+x];
+		return slot==0 ? null : foods[slot-1];
+	}
+	/**
+	 * Returns the current food of the world.
+	 * @return the first food in the registry or null if there is no food
+	 */
+	public Food getFood() {
+		return size==0 ? null : foods[0];
+	}
+	@Override
+	public int findNearestFood(GridView map, int x, int y) {
+		Food food = findNearest(x, y);
+		return food==null ? -1 : map.indexOf(food.getX(), food.getY());
+	}
+	/**
+	 * Finds the food which is the nearest to a position by Manhattan distance.
+	 * The buckets are searched ring by ring until no bucket of the next ring can contain a nearer food.
+	 * @param x x coordinate of the position
+	 * @param y y coordinate of the position
+	 * @return the nearest food or null if there is no food
+	 */
+	public Food findNearest(int x, int y) {
+		if(size==0) {
+			return null;
+		}
+		int bx = x/BUCKET_SIZE;
+		int by = y/BUCKET_SIZE;
+		int maxRing = Math.max(Math.max(bx, bucketsX-1-bx), Math.max(by, bucketsY-1-by));
+		int best = -1;
+		int bestDistance = Integer.MAX_VALUE;
+		for(int ring=0;ring<=maxRing;ring++) {
+			// Every cell of a bucket in this ring is at least this far away
+			if(best>=0 && (ring-1)*BUCKET_SIZE+1>=bestDistance) {
+				break;
+			}
+			for(int j=Math.max(0, by-ring);j<=Math.min(bucketsY-1, by+ring);j++) {
+				boolean edgeRow = j==by-ring || j==by+ring;
+				int step = edgeRow ? 1 : 2*ring;
+				for(int i=bx-ring;i<=bx+ring;i+=Math.max(1, step)) {
+					if(i<0 || i>=bucketsX) {
+						continue;
+					}
+					for(int cell=bucketHeads[j*bucketsX+i];cell>=0;cell=nextInBucket[cell]) {
+						int distance = Math.abs(cell%gridWidth-x)+Math.abs(cell/gridWidth-y);
+						if(distance<bestDistance) {
+							bestDistance=distance;
+							best=cell;
+						}
+					}
+				}
+			}
+		}
+		return foods[slotOfCell[best]-1];
+	}
+	/**
+	 * Writes the foods in the order of their slots and the order of the foods in every bucket,
+	 * which decides the food found by findNearest(...) when two foods are as near.
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	void writeTo(MappedOutput out) throws IOException {
+		out.writeInt(size);
+		for(int slot=0;slot<size;slot++) {
+			out.writeInt(foods[slot].getY()*gridWidth+foods[slot].getX());
+		}
+		for(int bucket=0;bucket<bucketHeads.length;bucket++) {
+			if(bucketHeads[bucket]<0) {
+				continue;
+			}
+			int count = 0;
+			for(int cell=bucketHeads[bucket];cell>=0;cell=nextInBucket[cell]) {
+				count++;
+			}
+			out.writeInt(bucket);
+			out.writeInt(count);
+			for(int cell=bucketHeads[bucket];cell>=0;cell=nextInBucket[cell]) {
+				out.writeInt(cell);
+			}
+		}
+		out.writeInt(-1);
+	}
+	/**
+	 * Reads the foods written by writeTo(...) into this empty registry, new Food objects are created for them.
+	 * @param in the input
+	 * @throws IOException if the input can not be read or does not fit the grid
+	 */
+	void readFrom(MappedInput in) throws IOException {
+		int count = in.readInt();
+		if(size!=0 || count<0 || count>slotOfCell.length) {
+			throw new IOException("The foods of the snapshot do not fit the registry");
+		}
+		foods = new Food[Math.max(4, count)];
+		for(int slot=0;slot<count;slot++) {
+			int cell = readCell(in);
+			foods[slot] = new Food(cell%gridWidth, cell/gridWidth);
+			slotOfCell[cell]=slot+1;
+		}
+		size=count;
+		int linked = 0;
+		for(int bucket=in.readInt();bucket>=0;bucket=in.readInt()) {
+			if(bucket>=bucketHeads.length) {
+				throw new IOException("The foods of the snapshot do not fit the registry");
+			}
+			int length = in.readInt();
+			int prev = -1;
+			for(int i=0;i<length;i++) {
+				int cell = readCell(in);
+				if(slotOfCell[cell]==0 || bucketOf(cell%gridWidth, cell/gridWidth)!=bucket) {
+					throw new IOException("The foods of the snapshot do not fit the registry");
+				}
+				prevInBucket[cell]=prev;
+				nextInBucket[cell]=-1;
+				if(prev>=0) {
+					nextInBucket[prev]=cell;
+				}else {
+					bucketHeads[bucket]=cell;
+				}
+				prev=cell;
+				linked++;
+			}
+		}
+		if(linked!=count) {
+			throw new IOException("The foods of the snapshot do not fit the registry");
+		}
+	}
+	/**
+	 * Reads a cell index and checks it is inside the grid.
+	 * @param in the input
+	 * @return the cell index
+	 * @throws IOException if the input can not be read or the cell is outside the grid
+	 */
+	private int readCell(MappedInput in) throws IOException {
+		int cell = in.readInt();
+		if(cell<0 || cell>=slotOfCell.length) {
+			throw new IOException("The foods of the snapshot do not fit the registry");
+		}
+		return cell;
+	}
+	/**
+	 * Returns a food by its slot.
+	 * @param slot slot between 0 and size()-1
+	 * @return the food in the slot
+	 */
+	public Food get(int slot) {
+		return foods[slot];
+	}
+	/**
+	 * Getter for the number of foods.
+	 * @return number of foods in the registry
+	 */
+	public int size() {
+		return size;
+	}
+	/**
+	 * Returns the bucket of a position.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @return index of the bucket
+	 */
+	private int bucketOf(int x, int y) {
+		return (y/BUCKET_SIZE)*bucketsX+x/BUCKET_SIZE;
+	}
+}
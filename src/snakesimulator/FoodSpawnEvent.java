@@ -0,0 +1,26 @@
+package snakesimulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+/**
+ * Flight recorder event of placing a food in SegmentGrid.generateFood(...).
+ *
+ */
+@Name("snakesimulator.FoodSpawn")
+@Label("Food Spawn")
+@Category("Snake Simulator")
+@Description("A new food was placed on an empty cell")
+class FoodSpawnEvent extends Event{
+	@Label("X")
+	int x=-1;
+	@Label("Y")
+	int y=-1;
+	@Label("Free Cells")
+	int freeCells;
+	@Label("Success")
+	@Description("False if the map had no empty cell")
+	boolean success;
+}
@@ -0,0 +1,21 @@
+package snakesimulator;
+/**
+ * Class representing the changes of the world since the previous frame, as the renderer needs them.
+ * A frame lists every changed cell once with its type after the last tick of the frame, and is filled by the
+ * simulation thread. So a frame holds at most one entry for every cell of the grid.
+ *
+ */
+class Frame {
+	final int[] cells;
+	final byte[] types;
+	int size=0;
+	long tick=-1;
+	/**
+	 * Creates an empty frame.
+	 * @param capacity number of cells of the grid
+	 */
+	Frame(int capacity) {
+		cells = new int[capacity];
+		types = new byte[capacity];
+	}
+}
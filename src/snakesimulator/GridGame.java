@@ -4,15 +4,6 @@ import ui.GridPanel;
 
 import javax.swing.*;
 
-import ability.Drawable;
-import elements.Food;
-import elements.Segment;
-import elements.Snake;
-
-
-import java.util.HashSet;
-import java.util.Set;
-
 
 /**
  * Class representing a generic grid-based game.
@@ -23,8 +14,6 @@ public abstract class GridGame {
     private GridPanel gamePanel;
     private Timer gameTimer;
 
-    private Set<Drawable> drawables;
-
     /**
      * Constructs a generic grid game
      * @param gridWidth width of the grid world
@@ -36,60 +25,45 @@ public abstract class GridGame {
         gamePanel = new GridPanel(gridWidth, gridHeight, gridSquareSize);
         gameTimer = new Timer(1000/frameRate, event -> {
             timerTick();
-            redraw();
+            update();
         });
-        drawables = new HashSet<>();
     } 
 
     /**
-     * Called at each tick to redraw the drawable objects added to this game.
-     * Additionally draws gridlines.
+     * Redraws the whole game.
+     * The gridlines come with the pre-rendered background of the panel.
+     * Can also be called without the timer, for example to measure drawing.
      */
-    private void redraw() {
-        gamePanel.clearCanvas();
-        gamePanel.drawGrid();
-
-        for (Drawable drawable : drawables) {
-            drawable.draw(gamePanel);
-        }
-
-        gamePanel.repaint();
+    public void redraw() {
+        gamePanel.drawBackground();
+        drawAll();
+        gamePanel.repaintDirty();
     }
 
     /**
-     * Adds a new drawable object to the game.
-     * @param snake the snake which can be drawn to panel
+     * Called at each tick after timerTick() to bring the panel up to date.
+     * Redraws everything by default, a game which draws its changes itself only repaints the changed region.
      */
-    protected void addDrawable(Snake snake) {
-       Segment current = snake.getHead();
-       while(current.next!=null) {
-    	   drawables.add(current);
-    	   current=current.next;
-       }
-       drawables.add(current);
-    }
-    /**
-     * Adds a new drawable object to the game.
-     * The added object will be drawn on the panel at each tick via its draw(...) method.
-     * @param segment the segment which can be drawn to panel
-     */
-    protected void addDrawable(Segment segment) {
-    	drawables.add(segment);
+    protected void update() {
+        redraw();
     }
+
+
     /**
-     * Adds a new drawable object to the game.
-     * The added object will be drawn on the panel at each tick via its draw(...) method.
-     * @param food the food which can be drawn to panel
+     * Setter for the frame rate, must be called on the event dispatch thread.
+     * @param frameRate number of ticks per second, 0 or less for as fast as the timer allows
      */
-    protected void addDrawable(Food food) {
-    	drawables.add(food);
+    public void setFrameRate(double frameRate) {
+        gameTimer.setDelay(frameRate>0 ? (int)Math.round(1000/frameRate) : 0);
     }
+
     /**
-     * Removes a previously added drawable object.
-     * @param food removes the eaten food
+     * Getter for the frame rate.
+     * @return number of ticks per second, 0 if the timer runs as fast as it can
      */
-    protected void removeDrawable(Food food) {
-    	drawables.remove(food);
+    public double getFrameRate() {
+        int delay = gameTimer.getDelay();
+        return delay==0 ? 0 : 1000.0/delay;
     }
 
     /**
@@ -137,5 +111,11 @@ public abstract class GridGame {
      * Every subclass should implement this method to define its game logic.
      */
     protected abstract void timerTick();
+
+    /**
+     * Draws the whole game on the background of the panel.
+     * Every subclass should implement this method to draw its world.
+     */
+    protected abstract void drawAll();
 	
 }
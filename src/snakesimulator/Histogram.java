@@ -0,0 +1,123 @@
+package snakesimulator;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+/**
+ * Class representing a histogram of non-negative values, like the histograms of HdrHistogram.
+ * Values below 64 have their own buckets, larger values are counted in 32 buckets for every power of two,
+ * so a percentile is off by at most about 3% and recording is a few shifts and one atomic increment.
+ * Values can be recorded from any thread and reading never blocks the recording threads.
+ *
+ */
+public class Histogram {
+	private static final int SUB_BUCKET_BITS = 5;
+	private static final int SUB_BUCKETS = 1<<SUB_BUCKET_BITS;
+	private static final int LINEAR_LIMIT = 2*SUB_BUCKETS;
+	private static final int BUCKETS = (64-SUB_BUCKET_BITS)*SUB_BUCKETS;
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final AtomicLong count = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+	/**
+	 * Records a value, negative values are recorded as 0.
+	 * @param value the value
+	 */
+	public void record(long value) {
+		if(value<0) {
+			value=0;
+		}
+		counts.incrementAndGet(bucketOf(value));
+		count.incrementAndGet();
+		sum.addAndGet(value);
+		if(value>max.get()) {
+			max.accumulateAndGet(value, Math::max);
+		}
+	}
+	/**
+	 * Getter for the number of recorded values.
+	 * @return number of values
+	 */
+	public long getCount() {
+		return count.get();
+	}
+	/**
+	 * Getter for the sum of the recorded values.
+	 * @return sum of the values
+	 */
+	public long getSum() {
+		return sum.get();
+	}
+	/**
+	 * Getter for the mean of the recorded values.
+	 * @return the mean or 0 if no value is recorded
+	 */
+	public double getMean() {
+		long n = count.get();
+		return n==0 ? 0 : (double)sum.get()/n;
+	}
+	/**
+	 * Getter for the largest recorded value.
+	 * @return the largest value or 0 if no value is recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+	/**
+	 * Returns the value below which a percentage of the recorded values are.
+	 * The result is the largest value of the bucket of the percentile, but never more than the largest recorded value.
+	 * @param percentile percentage between 0 and 100
+	 * @return the value or 0 if no value is recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		long n = count.get();
+		if(n==0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long)Math.ceil(Math.min(percentile, 100)/100*n));
+		long seen = 0;
+		for(int bucket=0;bucket<BUCKETS;bucket++) {
+			seen+=counts.get(bucket);
+			if(seen>=rank) {
+				return Math.min(highestValueOf(bucket), max.get());
+			}
+		}
+		return max.get();
+	}
+	/**
+	 * Removes all recorded values.
+	 * Values recorded by other threads during the reset may be kept partly.
+	 */
+	public void reset() {
+		for(int bucket=0;bucket<BUCKETS;bucket++) {
+			counts.set(bucket, 0);
+		}
+		count.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+	/**
+	 * Returns the bucket of a value.
+	 * @param value a non-negative value
+	 * @return index of the bucket
+	 */
+	private static int bucketOf(long value) {
+		if(value<LINEAR_LIMIT) {
+			return (int)value;
+		}
+		int shift = 63-Long.numberOfLeadingZeros(value)-SUB_BUCKET_BITS;
+		return shift*SUB_BUCKETS+(int)(value>>>shift);
+	}
+	/**
+	 * Returns the largest value counted in a bucket.
+	 * @param bucket index of the bucket
+	 * @return the largest value of the bucket
+	 */
+	private static long highestValueOf(int bucket) {
+		if(bucket<LINEAR_LIMIT) {
+			return bucket;
+		}
+		int shift = bucket/SUB_BUCKETS-1;
+		long mantissa = bucket%SUB_BUCKETS+SUB_BUCKETS;
+		return ((mantissa+1)<<shift)-1;
+	}
+}
@@ -0,0 +1,162 @@
+package snakesimulator;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/**
+ * Class reading a file written by MappedOutput through memory mapped windows of the file.
+ * The pages are read by the operating system as they are touched, without a copy through a stream buffer.
+ *
+ */
+class MappedInput implements DataInput, Closeable{
+	private static final long WINDOW_SIZE = 64L<<20;
+	private final FileChannel channel;
+	private final long size;
+	private MappedByteBuffer buffer;
+	private long windowStart;
+	/**
+	 * Opens a file for reading.
+	 * @param file the file
+	 * @throws IOException if the file can not be opened
+	 */
+	MappedInput(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		size = channel.size();
+		map(0);
+	}
+	/**
+	 * Maps the window starting at a position of the file.
+	 * @param position position in the file
+	 * @throws IOException if the file can not be mapped
+	 */
+	private void map(long position) throws IOException {
+		windowStart = position;
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size-position));
+	}
+	/**
+	 * Makes sure the window has a number of bytes, the next window starts at the current position.
+	 * @param bytes number of bytes
+	 * @throws IOException if the file ends before these bytes
+	 */
+	private void ensure(int bytes) throws IOException {
+		if(buffer.remaining()<bytes) {
+			long position = windowStart+buffer.position();
+			if(size-position<bytes) {
+				throw new EOFException();
+			}
+			map(position);
+		}
+	}
+	/**
+	 * Reads many ints at once.
+	 * @param values the array to fill
+	 * @param from index of the first int to read
+	 * @param count number of ints to read
+	 * @throws IOException if the file ends before these ints
+	 */
+	void readInts(int[] values, int from, int count) throws IOException {
+		while(count>0) {
+			ensure(Integer.BYTES);
+			int n = Math.min(count, buffer.remaining()/Integer.BYTES);
+			buffer.asIntBuffer().get(values, from, n);
+			buffer.position(buffer.position()+n*Integer.BYTES);
+			from+=n;
+			count-=n;
+		}
+	}
+	@Override
+	public void readFully(byte[] b) throws IOException {
+		readFully(b, 0, b.length);
+	}
+	@Override
+	public void readFully(byte[] b, int off, int len) throws IOException {
+		while(len>0) {
+			ensure(1);
+			int n = Math.min(len, buffer.remaining());
+			buffer.get(b, off, n);
+			off+=n;
+			len-=n;
+		}
+	}
+	@Override
+	public int skipBytes(int n) throws IOException {
+		long position = windowStart+buffer.position();
+		int skipped = (int)Math.min(n, size-position);
+		map(position+skipped);
+		return skipped;
+	}
+	@Override
+	public boolean readBoolean() throws IOException {
+		return readByte()!=0;
+	}
+	@Override
+	public byte readByte() throws IOException {
+		ensure(1);
+		return buffer.get();
+	}
+	@Override
+	public int readUnsignedByte() throws IOException {
+		return readByte()&0xFF;
+	}
+	@Override
+	public short readShort() throws IOException {
+		ensure(Short.BYTES);
+		return buffer.getShort();
+	}
+	@Override
+	public int readUnsignedShort() throws IOException {
+		return readShort()&0xFFFF;
+	}
+	@Override
+	public char readChar() throws IOException {
+		ensure(Character.BYTES);
+		return buffer.getChar();
+	}
+	@Override
+	public int readInt() throws IOException {
+		ensure(Integer.BYTES);
+		return buffer.getInt();
+	}
+	@Override
+	public long readLong() throws IOException {
+		ensure(Long.BYTES);
+		return buffer.getLong();
+	}
+	@Override
+	public float readFloat() throws IOException {
+		return Float.intBitsToFloat(readInt());
+	}
+	@Override
+	public double readDouble() throws IOException {
+		return Double.longBitsToDouble(readLong());
+	}
+	@Override
+	public String readLine() throws IOException {
+		StringBuilder line = new StringBuilder();
+		while(windowStart+buffer.position()<size) {
+			int c = readUnsignedByte();
+			if(c=='\n') {
+				return line.toString();
+			}
+			if(c!='\r') {
+				line.append((char)c);
+			}
+		}
+		return line.length()==0 ? null : line.toString();
+	}
+	@Override
+	public String readUTF() throws IOException {
+		return DataInputStream.readUTF(this);
+	}
+	@Override
+	public void close() throws IOException {
+		buffer = null;
+		channel.close();
+	}
+}
@@ -0,0 +1,201 @@
+package snakesimulator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+/**
+ * Class writing a file through memory mapped windows of the file.
+ * Writes go straight into the page cache without a copy through a stream buffer, and a window is flushed to the disk
+ * when the next window is mapped, so files larger than one mapping can be written.
+ * The length of the file must be known before it is opened, so the windows never reach past the end and the file
+ * never has to be cut while it is mapped. The length is found by writing the same data to a counting output first.
+ * Numbers are written big-endian, like DataOutputStream does.
+ *
+ */
+class MappedOutput implements DataOutput, Closeable{
+	private static final long WINDOW_SIZE = 64L<<20;
+	private static final int COUNTING_BUFFER_SIZE = 1<<16;
+	private final FileChannel channel;
+	private final long length;
+	private ByteBuffer buffer;
+	private long windowStart;
+	/**
+	 * Creates an output which writes nothing and only counts the written bytes.
+	 * The bytes go to a small buffer which is reused, size() returns their number.
+	 */
+	MappedOutput() {
+		channel = null;
+		length = Long.MAX_VALUE;
+		buffer = ByteBuffer.allocate(COUNTING_BUFFER_SIZE);
+	}
+	/**
+	 * Opens an empty file for writing a given number of bytes.
+	 * @param file the file, it must exist and be empty
+	 * @param length number of bytes which will be written
+	 * @throws IOException if the file can not be opened
+	 */
+	MappedOutput(Path file, long length) throws IOException {
+		this.length = length;
+		channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		if(channel.size()!=0) {
+			channel.close();
+			throw new IOException(file+" is not empty");
+		}
+		map(0);
+	}
+	/**
+	 * Maps the window starting at a position of the file, the current window is flushed first.
+	 * A counting output only empties its buffer.
+	 * @param position position in the file
+	 * @throws IOException if the file can not be mapped
+	 */
+	private void map(long position) throws IOException {
+		windowStart = position;
+		if(channel==null) {
+			buffer.clear();
+			return;
+		}
+		if(buffer!=null) {
+			((MappedByteBuffer)buffer).force();
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.min(WINDOW_SIZE, length-position));
+	}
+	/**
+	 * Makes sure the window has room for a number of bytes, the next window starts at the current position.
+	 * @param bytes number of bytes
+	 * @throws IOException if the file can not be mapped or the bytes do not fit the length of the file
+	 */
+	private void ensure(int bytes) throws IOException {
+		if(buffer.remaining()<bytes) {
+			long position = windowStart+buffer.position();
+			if(length-position<bytes) {
+				throw new IOException("More than "+length+" bytes are written");
+			}
+			map(position);
+		}
+	}
+	/**
+	 * Returns the number of bytes written so far.
+	 * @return number of bytes
+	 */
+	long size() {
+		return windowStart+buffer.position();
+	}
+	/**
+	 * Writes many ints at once.
+	 * @param values the array of ints
+	 * @param from index of the first int to write
+	 * @param count number of ints to write
+	 * @throws IOException if the file can not be mapped
+	 */
+	void writeInts(int[] values, int from, int count) throws IOException {
+		while(count>0) {
+			ensure(Integer.BYTES);
+			int n = Math.min(count, buffer.remaining()/Integer.BYTES);
+			buffer.asIntBuffer().put(values, from, n);
+			buffer.position(buffer.position()+n*Integer.BYTES);
+			from+=n;
+			count-=n;
+		}
+	}
+	@Override
+	public void write(int b) throws IOException {
+		ensure(1);
+		buffer.put((byte)b);
+	}
+	@Override
+	public void write(byte[] b) throws IOException {
+		write(b, 0, b.length);
+	}
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		while(len>0) {
+			ensure(1);
+			int n = Math.min(len, buffer.remaining());
+			buffer.put(b, off, n);
+			off+=n;
+			len-=n;
+		}
+	}
+	@Override
+	public void writeBoolean(boolean v) throws IOException {
+		write(v ? 1 : 0);
+	}
+	@Override
+	public void writeByte(int v) throws IOException {
+		write(v);
+	}
+	@Override
+	public void writeShort(int v) throws IOException {
+		ensure(Short.BYTES);
+		buffer.putShort((short)v);
+	}
+	@Override
+	public void writeChar(int v) throws IOException {
+		ensure(Character.BYTES);
+		buffer.putChar((char)v);
+	}
+	@Override
+	public void writeInt(int v) throws IOException {
+		ensure(Integer.BYTES);
+		buffer.putInt(v);
+	}
+	@Override
+	public void writeLong(long v) throws IOException {
+		ensure(Long.BYTES);
+		buffer.putLong(v);
+	}
+	@Override
+	public void writeFloat(float v) throws IOException {
+		writeInt(Float.floatToIntBits(v));
+	}
+	@Override
+	public void writeDouble(double v) throws IOException {
+		writeLong(Double.doubleToLongBits(v));
+	}
+	@Override
+	public void writeBytes(String s) throws IOException {
+		for(int i=0;i<s.length();i++) {
+			write(s.charAt(i));
+		}
+	}
+	@Override
+	public void writeChars(String s) throws IOException {
+		for(int i=0;i<s.length();i++) {
+			writeChar(s.charAt(i));
+		}
+	}
+	@Override
+	public void writeUTF(String s) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		new DataOutputStream(bytes).writeUTF(s);
+		write(bytes.toByteArray());
+	}
+	/**
+	 * Flushes the last window and closes the file.
+	 * @throws IOException if the window can not be flushed or fewer bytes than the length of the file were written
+	 */
+	@Override
+	public void close() throws IOException {
+		if(channel==null) {
+			return;
+		}
+		try {
+			long written = size();
+			((MappedByteBuffer)buffer).force();
+			buffer = null;
+			if(written!=length) {
+				throw new IOException("Only "+written+" of "+length+" bytes are written");
+			}
+		}finally {
+			channel.close();
+		}
+	}
+}
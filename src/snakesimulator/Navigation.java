@@ -0,0 +1,7 @@
+package snakesimulator;
+/**
+ * Enum representing how snakes find their way to the food.
+ * PATH_PER_SNAKE: every snake searches and caches its own path.
+ * DISTANCE_FIELD: the world computes one distance field from the food and every snake follows it.
+ */
+public enum Navigation {PATH_PER_SNAKE,DISTANCE_FIELD}
@@ -0,0 +1,59 @@
+package snakesimulator;
+
+import ai.GridView;
+import ai.Path;
+import ai.PathFinder;
+/**
+ * Class wrapping the path finder of a world which has a profiler.
+ * Every search is recorded as a GENERATE_PATH phase together with the number of cells it expanded.
+ *
+ */
+class ProfiledPathFinder implements PathFinder{
+	private final PathFinder pathFinder;
+	private final TickProfiler profiler;
+	/**
+	 * Creates a wrapper.
+	 * @param pathFinder the wrapped path finder
+	 * @param profiler the profiler to record to
+	 */
+	ProfiledPathFinder(PathFinder pathFinder, TickProfiler profiler) {
+		this.pathFinder = pathFinder;
+		this.profiler = profiler;
+	}
+	/**
+	 * Getter for the wrapped path finder.
+	 * @return the path finder whose searches are measured
+	 */
+	PathFinder getPathFinder() {
+		return pathFinder;
+	}
+	@Override
+	public boolean findPath(GridView map, int start, int goal, Path path) {
+		long startNanos = System.nanoTime();
+		boolean found = pathFinder.findPath(map, start, goal, path);
+		recordSearch(startNanos);
+		return found;
+	}
+	@Override
+	public boolean findPathToFood(GridView map, int start, int nearestFood, Path path) {
+		long startNanos = System.nanoTime();
+		boolean found = pathFinder.findPathToFood(map, start, nearestFood, path);
+		recordSearch(startNanos);
+		return found;
+	}
+	@Override
+	public int getExpandedNodes() {
+		return pathFinder.getExpandedNodes();
+	}
+	/**
+	 * Records a finished search.
+	 * @param startNanos the value of System.nanoTime() when the search started
+	 */
+	private void recordSearch(long startNanos) {
+		profiler.record(TickPhase.GENERATE_PATH, startNanos);
+		int expanded = pathFinder.getExpandedNodes();
+		if(expanded>=0) {
+			profiler.getExpandedNodes().record(expanded);
+		}
+	}
+}
@@ -0,0 +1,416 @@
+package snakesimulator;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import ai.GridView;
+import ai.SplitRandom;
+import elements.Food;
+import elements.Segment;
+/**
+ * Class representing the map of segments in the world.
+ * Every cell has a primitive cell type for the collision queries, and keeps its segment for identity and drawing
+ * only if it has one: the segment arrays are created at the first write of a segment, so a world whose snakes keep
+ * their bodies in ring buffers never has them. The foods of a grid with a food registry are found through the registry.
+ * The cells are stored in a grid padded with WALL cells, so the neighbours of a cell never need a bounds check.
+ * The grid is versioned: the first write to a cell in a tick saves the old value of the cell,
+ * so the state of the map at the start of the tick can be read without copying the whole map.
+ * The grid itself is the live view, tickStart() returns the view of the map at the start of the current tick.
+ * The empty cells are kept in a dense array with the slot of every cell, so a random empty cell is picked in constant time.
+ * The grid also records the cells changed since the changes were last cleared, so renderers redraw only these cells.
+ * These layers cost memory: every cell of the padded grid takes 14 bytes for the types, the versioning, the free slots
+ * and the changes, and every inner cell 9 more for the lists of empty and changed cells, against the one reference
+ * per cell of a plain Segment[][]. The segment arrays add two references per cell.
+ *
+ */
+public class SegmentGrid implements GridView{
+	private final int gridWidth;
+	private final int gridHeight;
+	private final int stride;
+	private final FoodRegistry foods;
+	private Segment[] cells;
+	private final byte[] types;
+	private Segment[] previous;
+	private final byte[] previousTypes;
+	private final int[] writtenAt;
+	private final int[] freeCells;
+	private final int[] freeSlots;
+	private int freeCount=0;
+	private final int[] changedAt;
+	private int changeEpoch=1;
+	private final CellChanges changes;
+	private int tick=1;
+	private final GridView tickStartView;
+	/**
+	 * Creates an empty grid which keeps its foods as segments.
+	 * @param gridWidth number of grid squares along the width
+	 * @param gridHeight number of grid squares along the height
+	 */
+	public SegmentGrid(int gridWidth, int gridHeight) {
+		this(gridWidth, gridHeight, null);
+	}
+	/**
+	 * Creates an empty grid whose foods are found through a food registry.
+	 * The foods written to the grid must be added to the registry too.
+	 * @param gridWidth number of grid squares along the width
+	 * @param gridHeight number of grid squares along the height
+	 * @param foods the registry of the foods, null to keep the foods as segments
+	 */
+	public SegmentGrid(int gridWidth, int gridHeight, FoodRegistry foods) {
+		this.foods = foods;
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+		stride = gridWidth+2;
+		int length = stride*(gridHeight+2);
+		types = new byte[length];
+		previousTypes = new byte[length];
+		writtenAt = new int[length];
+		freeCells = new int[gridWidth*gridHeight];
+		freeSlots = new int[length];
+		changedAt = new int[length];
+		changes = new CellChanges(stride, gridWidth*gridHeight);
+		for(int x=-1;x<=gridWidth;x++) {
+			types[indexOf(x, -1)]=WALL;
+			types[indexOf(x, gridHeight)]=WALL;
+		}
+		for(int y=0;y<gridHeight;y++) {
+			types[indexOf(-1, y)]=WALL;
+			types[indexOf(gridWidth, y)]=WALL;
+			for(int x=0;x<gridWidth;x++) {
+				addFree(indexOf(x, y));
+			}
+		}
+		tickStartView = new TickStartView();
+	}
+	/**
+	 * Starts a new tick.
+	 * After this call tickStart() shows the current state of the map until the next call.
+	 */
+	public void beginTick() {
+		if(tick==Integer.MAX_VALUE) {
+			Arrays.fill(writtenAt, 0);
+			tick=0;
+		}
+		tick++;
+	}
+	/**
+	 * Returns the view of the map at the start of the current tick.
+	 * @return the view of the map at the start of the current tick
+	 */
+	public GridView tickStart() {
+		return tickStartView;
+	}
+	/**
+	 * Puts a segment to a position, positions outside the grid are ignored.
+	 * The cell type is taken from the segment: a segment without a previous segment is a snake head.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param segment segment will be put at location, null for empty
+	 */
+	public void set(int x, int y, Segment segment) {
+		set(x, y, segment, typeOf(segment));
+	}
+	/**
+	 * Puts a segment with a given type to a position, positions outside the grid are ignored.
+	 * Snakes which keep their body without segments put a null segment with a snake type.
+	 * @param x x coordinate
+	 * @param y y coordinate
+	 * @param segment segment will be put at location, may be null
+	 * @param type type of the cell
+	 */
+	public void set(int x, int y, Segment segment, byte type) {
+		if(!isPositionInsideGrid(x, y)) {
+			return;
+		}
+		int index = indexOf(x, y);
+		boolean wasEmpty = types[index]==EMPTY;
+		write(index, segment, type);
+		if(wasEmpty && type!=EMPTY) {
+			removeFree(index);
+		}else if(!wasEmpty && type==EMPTY) {
+			addFree(index);
+		}
+	}
+	/**
+	 * Empties a cell and puts a segment to an empty cell in one step, as a moving snake does with its tail and head.
+	 * The emptied cell takes the free slot of the filled cell, so the number of empty cells does not change
+	 * and the moves of different snakes never touch the same slot. Moves can be done by many threads at the same time
+	 * as long as the threads write different cells.
+	 * @param fromX x coordinate of the cell to be emptied
+	 * @param fromY y coordinate of the cell to be emptied
+	 * @param toX x coordinate of the empty cell to be filled
+	 * @param toY y coordinate of the empty cell to be filled
+	 * @param segment segment will be put to the empty cell, may be null
+	 * @param type type of the filled cell
+	 */
+	public void move(int fromX, int fromY, int toX, int toY, Segment segment, byte type) {
+		int from = indexOf(fromX, fromY);
+		int to = indexOf(toX, toY);
+		write(from, null, EMPTY);
+		write(to, segment, type);
+		int slot = freeSlots[to];
+		freeCells[slot-1]=from;
+		freeSlots[from]=slot;
+		freeSlots[to]=0;
+	}
+	/**
+	 * Returns the cells changed since the last clearChanges(), with their current types.
+	 * @return the changed cells, the same object is returned and refilled by every call
+	 */
+	public CellChanges getChanges() {
+		changes.updateTypes(types);
+		return changes;
+	}
+	/**
+	 * Forgets the changed cells, the next change of every cell is recorded again.
+	 */
+	public void clearChanges() {
+		changes.clear();
+		if(changeEpoch==Integer.MAX_VALUE) {
+			Arrays.fill(changedAt, 0);
+			changeEpoch=0;
+		}
+		changeEpoch++;
+	}
+	/**
+	 * Copies the cell types of the padded grid.
+	 * @param target array with room for all cells of the padded grid
+	 */
+	public void copyTypes(byte[] target) {
+		System.arraycopy(types, 0, target, 0, types.length);
+	}
+	/**
+	 * Picks a random empty cell.
+	 * @param random the random number generator to use
+	 * @return index of the empty cell or -1 if the grid is full
+	 */
+	public int randomFreeCell(SplitRandom random) {
+		if(freeCount==0) {
+			return -1;
+		}
+		return freeCells[random.nextInt(freeCount)];
+	}
+	/**
+	 * Creates a food on a random empty cell.
+	 * The food is not written to the grid, the world adds it as its other elements.
+	 * Every call is recorded as a FoodSpawn event if a flight recording with this event is running.
+	 * @param random the random number generator of the world
+	 * @return new Food object or null if there is no empty cell
+	 */
+	public Food generateFood(SplitRandom random) {
+		FoodSpawnEvent event = new FoodSpawnEvent();
+		event.begin();
+		int cell = randomFreeCell(random);
+		Food food = cell<0 ? null : new Food(xOf(cell),yOf(cell));
+		if(event.shouldCommit()) {
+			if(food!=null) {
+				event.x=food.getX();
+				event.y=food.getY();
+			}
+			event.freeCells=freeCount;
+			event.success=food!=null;
+			event.commit();
+		}
+		return food;
+	}
+	/**
+	 * Writes the order of the empty cells, which decides where random foods are placed.
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	void writeFreeCells(MappedOutput out) throws IOException {
+		out.writeInt(freeCount);
+		out.writeInts(freeCells, 0, freeCount);
+	}
+	/**
+	 * Puts the empty cells in the order written by writeFreeCells(...).
+	 * The grid must already have the same cells empty as the written grid.
+	 * @param in the input
+	 * @throws IOException if the input can not be read or the empty cells are not the same
+	 */
+	void readFreeCells(MappedInput in) throws IOException {
+		if(in.readInt()!=freeCount) {
+			throw new IOException("The empty cells of the snapshot do not match the grid");
+		}
+		in.readInts(freeCells, 0, freeCount);
+		for(int slot=0;slot<freeCount;slot++) {
+			int cell = freeCells[slot];
+			if(cell<0 || cell>=types.length || types[cell]!=EMPTY) {
+				throw new IOException("The empty cells of the snapshot do not match the grid");
+			}
+			freeSlots[cell]=slot+1;
+		}
+	}
+	/**
+	 * Getter for the number of empty cells.
+	 * @return number of empty cells in the grid
+	 */
+	public int getFreeCellCount() {
+		return freeCount;
+	}
+	/**
+	 * Returns the x coordinate of a cell.
+	 * @param index index of the cell
+	 * @return x coordinate
+	 */
+	public int xOf(int index) {
+		return index%stride-1;
+	}
+	/**
+	 * Returns the y coordinate of a cell.
+	 * @param index index of the cell
+	 * @return y coordinate
+	 */
+	public int yOf(int index) {
+		return index/stride-1;
+	}
+	@Override
+	public Segment getSegment(int x, int y) {
+		if(!isPositionInsideGrid(x, y)) {
+			return null;
+		}
+		int index = indexOf(x, y);
+		if(foods!=null && types[index]==FOOD) {
+			return foods.getFoodAt(x, y);
+		}
+		return cells==null ? null : cells[index];
+	}
+	@Override
+	public byte getCellType(int index) {
+		return types[index];
+	}
+	@Override
+	public int getStride() {
+		return stride;
+	}
+	@Override
+	public int indexOf(int x, int y) {
+		return (y+1)*stride+x+1;
+	}
+	@Override
+	public int getGridWidth() {
+		return gridWidth;
+	}
+	@Override
+	public int getGridHeight() {
+		return gridHeight;
+	}
+	/**
+	 * Writes a segment and its type to a cell, saving the old value at the first write of the tick.
+	 * The segment arrays are created at the first segment, which the world writes when it adds a snake,
+	 * so they are never created by the parallel moves.
+	 * @param index index of the cell
+	 * @param segment segment will be put to the cell
+	 * @param type type of the cell
+	 */
+	private void write(int index, Segment segment, byte type) {
+		if(foods!=null && type==FOOD) {
+			segment=null;
+		}
+		if(segment!=null && cells==null) {
+			cells = new Segment[types.length];
+			previous = new Segment[types.length];
+		}
+		if(writtenAt[index]!=tick) {
+			if(cells!=null) {
+				previous[index]=cells[index];
+			}
+			previousTypes[index]=types[index];
+			writtenAt[index]=tick;
+		}
+		if(changedAt[index]!=changeEpoch) {
+			changedAt[index]=changeEpoch;
+			changes.add(index);
+		}
+		if(cells!=null) {
+			cells[index]=segment;
+		}
+		types[index]=type;
+	}
+	/**
+	 * Finds the cell type of a segment: a segment without a previous segment is a snake head.
+	 * @param segment the segment, null for empty
+	 * @return the cell type
+	 */
+	private static byte typeOf(Segment segment) {
+		if(segment==null) {
+			return EMPTY;
+		}else if(segment instanceof Food) {
+			return FOOD;
+		}else if(segment.prev==null) {
+			return SNAKE_HEAD;
+		}
+		return SNAKE_BODY;
+	}
+	/**
+	 * Adds a cell to the end of the empty cells.
+	 * @param index index of the cell
+	 */
+	private void addFree(int index) {
+		freeCells[freeCount++]=index;
+		freeSlots[index]=freeCount;
+	}
+	/**
+	 * Removes a cell from the empty cells by moving the last empty cell to its slot.
+	 * @param index index of the cell
+	 */
+	private void removeFree(int index) {
+		int slot = freeSlots[index]-1;
+		int last = freeCells[--freeCount];
+		freeCells[slot]=last;
+		freeSlots[last]=slot+1;
+		freeSlots[index]=0;
+	}
+	/**
+	 * Checks is the position inside the gird.
+	 * @param x x coordinate of position
+	 * @param y y coordinate of position
+	 * @return is the position inside the grid or not
+	 */
+	public boolean isPositionInsideGrid(int x, int y) {
+		return (x >= 0 && x < gridWidth) && (y >= 0 && y < gridHeight);
+	}
+	/**
+	 * View of the map at the start of the current tick.
+	 * A food of a grid with a food registry which has been eaten in this tick is no longer in the registry,
+	 * so it is shown as a new food on its cell.
+	 */
+	private class TickStartView implements GridView{
+		@Override
+		public Segment getSegment(int x, int y) {
+			if(!isPositionInsideGrid(x, y)) {
+				return null;
+			}
+			int index = indexOf(x, y);
+			boolean written = writtenAt[index]==tick;
+			if(foods!=null && (written ? previousTypes[index] : types[index])==FOOD) {
+				Food food = foods.getFoodAt(x, y);
+				return food==null ? new Food(x, y) : food;
+			}
+			if(cells==null) {
+				return null;
+			}
+			return written ? previous[index] : cells[index];
+		}
+		@Override
+		public byte getCellType(int index) {
+			return writtenAt[index]==tick ? previousTypes[index] : types[index];
+		}
+		@Override
+		public int getStride() {
+			return stride;
+		}
+		@Override
+		public int indexOf(int x, int y) {
+			return (y+1)*stride+x+1;
+		}
+		@Override
+		public int getGridWidth() {
+			return gridWidth;
+		}
+		@Override
+		public int getGridHeight() {
+			return gridHeight;
+		}
+	}
+}
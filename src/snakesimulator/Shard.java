@@ -0,0 +1,75 @@
+package snakesimulator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import ai.Action;
+import ai.Information;
+import ai.PathFinder;
+import elements.Snake;
+/**
+ * Class representing a horizontal stripe of the world in SHARDED mode.
+ * A shard owns the snakes whose heads are in its rows and has its own path finder and buffers,
+ * so its worker thread does not share any mutable state with the other shards while snakes choose their actions.
+ *
+ */
+class Shard {
+	final int rowFrom;
+	final int rowTo;
+	PathFinder pathFinder;
+	ArrayList<Snake> snakes = new ArrayList<Snake>();
+	ArrayList<Snake> staying = new ArrayList<Snake>();
+	ArrayList<Snake> arrivals = new ArrayList<Snake>();
+	Information[] informations = new Information[16];
+	Action[] actions = new Action[16];
+	boolean[] deferred = new boolean[16];
+	int count=0;
+	/**
+	 * Creates an empty shard.
+	 * @param rowFrom first row of the stripe
+	 * @param rowTo end of the stripe (exclusive)
+	 * @param pathFinder the path finder of the shard
+	 */
+	Shard(int rowFrom, int rowTo, PathFinder pathFinder) {
+		this.rowFrom = rowFrom;
+		this.rowTo = rowTo;
+		this.pathFinder = pathFinder;
+	}
+	/**
+	 * Checks a row belongs to the stripe of this shard.
+	 * @param y the row
+	 * @return true if the row is in the stripe
+	 */
+	boolean owns(int y) {
+		return y>=rowFrom && y<rowTo;
+	}
+	/**
+	 * Replaces the snakes of the shard with the snakes which stayed in it and the snakes which arrived to it.
+	 * The staying snakes keep their order and the arrived snakes are put after them, so the order does not depend on threads.
+	 */
+	void finishHandOff() {
+		staying.addAll(arrivals);
+		arrivals.clear();
+		ArrayList<Snake> old = snakes;
+		snakes = staying;
+		staying = old;
+		staying.clear();
+	}
+	/**
+	 * Starts a tick: the snakes owned at this moment are processed in the tick.
+	 */
+	void beginTick() {
+		count = snakes.size();
+		if(actions.length<count) {
+			int capacity = Math.max(count, actions.length*2);
+			informations = Arrays.copyOf(informations, capacity);
+			actions = new Action[capacity];
+			deferred = new boolean[capacity];
+		}
+		for(int i=0;i<count;i++) {
+			if(informations[i]==null) {
+				informations[i] = new Information();
+			}
+		}
+	}
+}
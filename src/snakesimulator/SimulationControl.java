@@ -0,0 +1,31 @@
+package snakesimulator;
+/**
+ * Interface for the objects which step a world and can be controlled while it runs, like a SimulationLoop or the
+ * Swing timer of a SnakeSimulator. All methods can be called from any thread.
+ *
+ */
+public interface SimulationControl {
+	/**
+	 * Stops stepping the world until resume() is called.
+	 */
+	public void pause();
+	/**
+	 * Continues stepping the world after pause().
+	 */
+	public void resume();
+	/**
+	 * Checks the world is paused.
+	 * @return true if the world is not stepped
+	 */
+	public boolean isPaused();
+	/**
+	 * Setter for the target tick rate.
+	 * @param targetTickRate number of ticks per second, 0 or less for as fast as possible
+	 */
+	public void setTargetTickRate(double targetTickRate);
+	/**
+	 * Getter for the target tick rate.
+	 * @return number of ticks per second, 0 or less for as fast as possible
+	 */
+	public double getTargetTickRate();
+}
@@ -0,0 +1,243 @@
+package snakesimulator;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+/**
+ * Class running the ticks of a world on its own thread, or on the calling thread with run(ticks).
+ * The loop steps the world as fast as possible or at a target tick rate, independent of any display,
+ * and can be paused and given another rate from any thread while it runs.
+ * If a renderer is attached, the cells changed in every tick are collected into a frame, and the frame is published
+ * through a triple buffer after a tick whenever the renderer has taken the last frame. So a frame only holds the cells
+ * changed since the previous frame, and neither the simulation nor the renderer ever waits for the other.
+ * While the loop runs, the world must only be used by the loop thread.
+ *
+ */
+public class SimulationLoop implements Runnable, SimulationControl{
+	// How long a paused loop waits before it tries again to publish the changes of its last ticks
+	private static final long PAUSED_FRAME_WAIT = 10000000;
+	private final SnakeWorld world;
+	private TripleBuffer<Frame> frames;
+	// Slot of every cell in the frame being filled, valid if the frame number of the cell is the current one
+	private int[] slotOfCell;
+	private int[] frameOfCell;
+	private int frameNumber=1;
+	private volatile double targetTickRate;
+	private volatile boolean running=false;
+	private volatile boolean paused=false;
+	private volatile Thread thread;
+	// True if the thread was started by start(), false if it called run(ticks)
+	private boolean ownThread;
+	/**
+	 * Creates a loop for a world.
+	 * @param world the world to be stepped
+	 * @param targetTickRate number of ticks per second, 0 or less for as fast as possible
+	 */
+	public SimulationLoop(SnakeWorld world, double targetTickRate) {
+		this.world = world;
+		this.targetTickRate = targetTickRate;
+	}
+	/**
+	 * Makes the loop collect the changes of the world into frames for a renderer, must be called before start().
+	 * The loop becomes the listener of the world, the renderer must already show the current state of the world.
+	 */
+	void recordFrames() {
+		int capacity = world.getGridWidth()*world.getGridHeight();
+		int length = world.getGrid().getStride()*(world.getGridHeight()+2);
+		frames = new TripleBuffer<Frame>(new Frame(capacity), new Frame(capacity), new Frame(capacity));
+		slotOfCell = new int[length];
+		frameOfCell = new int[length];
+		world.setListener(this::addChanges);
+	}
+	/**
+	 * Starts the loop on a new daemon thread.
+	 */
+	public synchronized void start() {
+		if(running) {
+			return;
+		}
+		running=true;
+		ownThread=true;
+		thread = new Thread(this, "simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+	/**
+	 * Stops the loop and waits until the current tick is finished.
+	 * A loop running on a thread which called run(ticks) is only told to stop, run(ticks) returns after the current tick.
+	 */
+	public synchronized void stop() {
+		if(!running) {
+			return;
+		}
+		running=false;
+		LockSupport.unpark(thread);
+		if(!ownThread) {
+			return;
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		thread=null;
+	}
+	/**
+	 * Steps the world a number of ticks on the calling thread, pausing and following the target tick rate like the
+	 * thread of start() does. Returns earlier if stop() is called.
+	 * @param ticks number of ticks
+	 * @throws IllegalStateException if the loop is already running
+	 */
+	public void run(long ticks) {
+		synchronized(this) {
+			if(running) {
+				throw new IllegalStateException("The loop is already running");
+			}
+			running=true;
+			ownThread=false;
+			thread=Thread.currentThread();
+		}
+		try {
+			loop(ticks);
+		}finally {
+			synchronized(this) {
+				running=false;
+				thread=null;
+			}
+		}
+	}
+	/**
+	 * Checks the loop is running.
+	 * @return true if the loop is running
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+	/**
+	 * Stops stepping the world until resume() is called, can be called from any thread.
+	 * The tick being executed is finished first, and the thread waits without using the processor.
+	 */
+	@Override
+	public void pause() {
+		paused=true;
+	}
+	/**
+	 * Continues stepping the world after pause(), can be called from any thread.
+	 */
+	@Override
+	public void resume() {
+		paused=false;
+		LockSupport.unpark(thread);
+	}
+	/**
+	 * Checks the loop is paused.
+	 * @return true if the loop does not step the world
+	 */
+	@Override
+	public boolean isPaused() {
+		return paused;
+	}
+	/**
+	 * Setter for the target tick rate, can be called from any thread while the loop runs.
+	 * @param targetTickRate number of ticks per second, 0 or less for as fast as possible
+	 */
+	@Override
+	public void setTargetTickRate(double targetTickRate) {
+		this.targetTickRate = targetTickRate;
+		LockSupport.unpark(thread);
+	}
+	/**
+	 * Getter for the target tick rate.
+	 * @return number of ticks per second, 0 or less for as fast as possible
+	 */
+	@Override
+	public double getTargetTickRate() {
+		return targetTickRate;
+	}
+	/**
+	 * Steps the world until the loop is stopped, on the thread started by start().
+	 */
+	@Override
+	public void run() {
+		loop(Long.MAX_VALUE);
+	}
+	/**
+	 * Steps the world until the loop is stopped or the ticks are executed.
+	 * When the loop falls behind the target rate, it continues from the current time instead of catching up.
+	 * After a pause the ticks continue at the target rate without catching up either.
+	 * A paused loop still publishes the changes of its last ticks once the renderer has taken the previous frame.
+	 * @param ticks number of ticks
+	 */
+	private void loop(long ticks) {
+		long nextTick = System.nanoTime();
+		for(long tick=0;running && tick<ticks;) {
+			if(paused) {
+				if(publishFrame()) {
+					LockSupport.park(this);
+				}else {
+					LockSupport.parkNanos(this, PAUSED_FRAME_WAIT);
+				}
+				nextTick = System.nanoTime();
+				continue;
+			}
+			double rate = targetTickRate;
+			if(rate>0) {
+				long now = System.nanoTime();
+				if(now<nextTick) {
+					LockSupport.parkNanos(this, nextTick-now);
+					continue;
+				}
+				long period = (long)(1e9/rate);
+				nextTick = Math.max(nextTick+period, now);
+			}
+			world.step();
+			tick++;
+			publishFrame();
+		}
+	}
+	/**
+	 * Publishes the frame being filled if frames are recorded and the renderer has taken the last frame.
+	 * @return false if the frame being filled has changes which could not be published
+	 */
+	private boolean publishFrame() {
+		if(frames==null) {
+			return true;
+		}
+		if(!frames.isTaken()) {
+			return frames.getBack().size==0;
+		}
+		frames.getBack().tick = world.getTickCount();
+		frames.publish();
+		frames.getBack().size = 0;
+		if(frameNumber==Integer.MAX_VALUE) {
+			Arrays.fill(frameOfCell, 0);
+			frameNumber=0;
+		}
+		frameNumber++;
+		return true;
+	}
+	/**
+	 * Adds the cells changed in a tick to the frame being filled, a cell already in the frame gets its new type.
+	 * @param changes the changed cells
+	 */
+	private void addChanges(CellChanges changes) {
+		Frame frame = frames.getBack();
+		for(int i=0;i<changes.size();i++) {
+			int cell = changes.getCell(i);
+			if(frameOfCell[cell]!=frameNumber) {
+				frameOfCell[cell]=frameNumber;
+				slotOfCell[cell]=frame.size;
+				frame.cells[frame.size++]=cell;
+			}
+			frame.types[slotOfCell[cell]]=changes.getType(i);
+		}
+	}
+	/**
+	 * Returns the latest published frame, only one renderer thread may call this.
+	 * Every published frame is taken before the next one is published, so a renderer applying the frames it has not
+	 * applied yet sees all changes. The same frame is returned again until a new one is published.
+	 * @return the latest frame
+	 */
+	Frame takeFrame() {
+		return frames.take();
+	}
+}
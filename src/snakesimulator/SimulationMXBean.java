@@ -0,0 +1,82 @@
+package snakesimulator;
+/**
+ * Management interface of a running simulation, registered by SimulationMonitor.register(...) or SnakeSimulator.registerMBean().
+ * The attributes are read from counters the world publishes once per tick, so reading them never blocks the simulation.
+ * Rates are measured over the time since the previous measurement, at least one second.
+ * The controls act on whatever steps the world, a SimulationLoop or the Swing timer of a SnakeSimulator.
+ *
+ */
+public interface SimulationMXBean {
+	/**
+	 * Getter for the number of executed ticks.
+	 * @return number of ticks
+	 */
+	public long getTickCount();
+	/**
+	 * Getter for the tick rate.
+	 * @return ticks per second
+	 */
+	public double getTicksPerSecond();
+	/**
+	 * Getter for the mean duration of the ticks since the statistics were reset.
+	 * @return mean tick time in microseconds
+	 */
+	public double getAverageTickMicros();
+	/**
+	 * Getter for the 99th percentile of the durations of the ticks since the statistics were reset.
+	 * @return tick time in microseconds
+	 */
+	public double getP99TickMicros();
+	/**
+	 * Getter for the number of snakes.
+	 * @return number of snakes
+	 */
+	public int getSnakeCount();
+	/**
+	 * Getter for the number of segments of all snakes.
+	 * @return number of segments
+	 */
+	public int getTotalSegments();
+	/**
+	 * Getter for the rate of generated paths and computed distance fields.
+	 * @return replans per second
+	 */
+	public double getReplansPerSecond();
+	/**
+	 * Getter for the rate of eaten foods.
+	 * @return foods eaten per second
+	 */
+	public double getFoodEatenPerSecond();
+	/**
+	 * Getter for the ratio of the cells taken by snakes and foods.
+	 * @return ratio between 0 and 1
+	 */
+	public double getFillRatio();
+	/**
+	 * Checks the simulation is paused.
+	 * @return true if the world is not stepped
+	 */
+	public boolean isPaused();
+	/**
+	 * Getter for the target tick rate.
+	 * @return ticks per second, 0 or less for as fast as possible
+	 */
+	public double getTargetTickRate();
+	/**
+	 * Setter for the target tick rate.
+	 * @param targetTickRate ticks per second, 0 or less for as fast as possible
+	 */
+	public void setTargetTickRate(double targetTickRate);
+	/**
+	 * Stops stepping the world, a display keeps showing the last state.
+	 */
+	public void pause();
+	/**
+	 * Continues stepping the world after pause().
+	 */
+	public void resume();
+	/**
+	 * Removes the tick times measured so far from the tick time statistics.
+	 */
+	public void resetStatistics();
+}
@@ -0,0 +1,137 @@
+package snakesimulator;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+/**
+ * Class implementing the management interface of a running world.
+ * Tick times come from a histogram the world records every tick to, the other attributes from its published counters,
+ * and the controls go to whatever steps the world. Only readers of the MBean synchronize with each other.
+ *
+ */
+public final class SimulationMonitor implements SimulationMXBean{
+	private static final long RATE_INTERVAL_NANOS = 1000000000L;
+	private static final AtomicInteger MBEAN_IDS = new AtomicInteger();
+	private final SimulationControl control;
+	private final WorldStats stats;
+	private final Histogram tickTimes;
+	private long sampleNanos;
+	private long sampleTicks;
+	private long sampleReplans;
+	private long sampleFoodsEaten;
+	private double ticksPerSecond;
+	private double replansPerSecond;
+	private double foodEatenPerSecond;
+	/**
+	 * Creates the monitor of a world, which starts measuring the tick times of the world.
+	 * @param world the world
+	 * @param control the object stepping the world
+	 */
+	SimulationMonitor(SnakeWorld world, SimulationControl control) {
+		this.control = control;
+		this.stats = world.getStats();
+		this.tickTimes = world.measureTickTimes();
+		sampleNanos = System.nanoTime();
+		sampleTicks = stats.getTickCount();
+		sampleReplans = stats.getReplans();
+		sampleFoodsEaten = stats.getFoodsEaten();
+	}
+	/**
+	 * Registers an MBean of a world to the platform MBean server, so it can be watched and controlled with JMX tools like JConsole.
+	 * Must be called before the world is stepped, because the world starts measuring its tick times.
+	 * @param world the world
+	 * @param control the object stepping the world, like its SimulationLoop
+	 * @return the name of the registered MBean
+	 * @throws JMException if the MBean can not be registered
+	 */
+	public static ObjectName register(SnakeWorld world, SimulationControl control) throws JMException {
+		ObjectName name = new ObjectName("snakesimulator:type=Simulation,id="+MBEAN_IDS.incrementAndGet());
+		ManagementFactory.getPlatformMBeanServer().registerMBean(new SimulationMonitor(world, control), name);
+		return name;
+	}
+	@Override
+	public long getTickCount() {
+		return stats.getTickCount();
+	}
+	@Override
+	public synchronized double getTicksPerSecond() {
+		updateRates();
+		return ticksPerSecond;
+	}
+	@Override
+	public double getAverageTickMicros() {
+		return tickTimes.getMean()/1e3;
+	}
+	@Override
+	public double getP99TickMicros() {
+		return tickTimes.getValueAtPercentile(99)/1e3;
+	}
+	@Override
+	public int getSnakeCount() {
+		return stats.getSnakeCount();
+	}
+	@Override
+	public int getTotalSegments() {
+		return stats.getTotalSegments();
+	}
+	@Override
+	public synchronized double getReplansPerSecond() {
+		updateRates();
+		return replansPerSecond;
+	}
+	@Override
+	public synchronized double getFoodEatenPerSecond() {
+		updateRates();
+		return foodEatenPerSecond;
+	}
+	@Override
+	public double getFillRatio() {
+		return stats.getFillRatio();
+	}
+	@Override
+	public boolean isPaused() {
+		return control.isPaused();
+	}
+	@Override
+	public double getTargetTickRate() {
+		return control.getTargetTickRate();
+	}
+	@Override
+	public void setTargetTickRate(double targetTickRate) {
+		control.setTargetTickRate(targetTickRate);
+	}
+	@Override
+	public void pause() {
+		control.pause();
+	}
+	@Override
+	public void resume() {
+		control.resume();
+	}
+	@Override
+	public void resetStatistics() {
+		tickTimes.reset();
+	}
+	/**
+	 * Measures the rates again if the last measurement is older than the rate interval.
+	 */
+	private void updateRates() {
+		long now = System.nanoTime();
+		long elapsed = now-sampleNanos;
+		if(elapsed<RATE_INTERVAL_NANOS) {
+			return;
+		}
+		long ticks = stats.getTickCount();
+		long replans = stats.getReplans();
+		long foodsEaten = stats.getFoodsEaten();
+		ticksPerSecond = (ticks-sampleTicks)*1e9/elapsed;
+		replansPerSecond = (replans-sampleReplans)*1e9/elapsed;
+		foodEatenPerSecond = (foodsEaten-sampleFoodsEaten)*1e9/elapsed;
+		sampleNanos = now;
+		sampleTicks = ticks;
+		sampleReplans = replans;
+		sampleFoodsEaten = foodsEaten;
+	}
+}
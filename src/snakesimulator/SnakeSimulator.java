@@ -1,27 +1,43 @@
 package snakesimulator;
 
-import java.awt.Point;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.awt.Color;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.swing.SwingUtilities;
+
+import ai.GridView;
 import elements.Food;
-import elements.Segment;
 import elements.Snake;
-import ability.Direction;
-import ai.Action;
-import ai.Information;
+import ui.GridPanel;
 
 /**
- * Class that implements the game logic for Snake Simulator.
- * 
+ * Class that connects a SnakeWorld to the Swing game loop of GridGame.
+ * The game logic lives in SnakeWorld, this class only steps it and draws it.
+ * The world is stepped by the Swing timer, or by a SimulationLoop on its own thread while the timer only draws
+ * the latest frame of the loop, so the simulation and the display run at their own rates.
+ * Cells are drawn from their types with a palette, the game does not keep any of the segments.
+ *
  * @author Halil Umut zdemir
  *
  */
-public class SnakeSimulator extends GridGame{
-	
-	private List<Snake> snakes;
-	private Segment[][] segmentMap;
+public class SnakeSimulator extends GridGame implements WorldListener, SimulationControl{
+
+	// Colour of every cell type, 0 for the types which show the background
+	private static final int[] PALETTE = new int[GridView.WALL+1];
+	// Types drawn as small squares
+	private static final boolean[] SMALL = new boolean[GridView.WALL+1];
+	static {
+		PALETTE[GridView.SNAKE_HEAD]=Color.BLUE.getRGB();
+		PALETTE[GridView.SNAKE_BODY]=Color.RED.getRGB();
+		PALETTE[GridView.FOOD]=Color.GREEN.getRGB();
+		SMALL[GridView.FOOD]=true;
+	}
+	private SnakeWorld world;
+	private SimulationLoop loop;
+	private byte[] shownTypes;
+	private long shownTick=-1;
+	private volatile boolean paused=false;
 	/**
      * Creates a new Snake Simulator game instance
      * @param gridWidth number of grid squares along the width
@@ -30,198 +46,255 @@ public class SnakeSimulator extends GridGame{
      * @param frameRate frame rate (number of timer ticks per second)
      */
 	public SnakeSimulator(int gridWidth, int gridHeight, int gridSquareSize, int frameRate) {
+		this(gridWidth, gridHeight, gridSquareSize, frameRate, System.nanoTime());
+	}
+	/**
+     * Creates a new Snake Simulator game instance whose world has a given seed
+     * @param gridWidth number of grid squares along the width
+     * @param gridHeight number of grid squares along the height
+     * @param gridSquareSize size of a grid square in pixels
+     * @param frameRate frame rate (number of timer ticks per second)
+     * @param seed the seed of the world
+     */
+	public SnakeSimulator(int gridWidth, int gridHeight, int gridSquareSize, int frameRate, long seed) {
 		super(gridWidth, gridHeight, gridSquareSize, frameRate);
-		snakes = new ArrayList<Snake>();
-		segmentMap = new Segment[gridWidth][gridHeight];
+		world = new SnakeWorld(gridWidth, gridHeight, seed);
+		world.setListener(this);
+	}
+	/**
+	 * Makes the world tick on its own thread instead of the Swing timer, must be called before start().
+	 * The timer then only draws the latest frame of the simulation at the frame rate of the game.
+	 * @param targetTickRate number of ticks per second, 0 or less for as fast as possible
+	 */
+	public void runOnOwnThread(double targetTickRate) {
+		loop = new SimulationLoop(world, targetTickRate);
+		// The loop thread must not draw, the frames carry the changes the timer draws
+		shownTypes = new byte[world.getGrid().getStride()*(world.getGridHeight()+2)];
+		world.getGrid().copyTypes(shownTypes);
+		loop.recordFrames();
 	}
 	/**
-	 * Determine and execute actions for all snakes.
+	 * Getter for the simulation loop.
+	 * @return the loop running the world, null if the world is stepped by the timer
+	 */
+	public SimulationLoop getLoop() {
+		return loop;
+	}
+	/**
+	 * Starts the game loop, and the simulation thread if the world runs on its own thread.
 	 */
 	@Override
-	protected void timerTick() {
-		ArrayList<Snake> snakesCopy = new ArrayList<Snake>(snakes);
-		Point foodLocation = null;
-		for(Snake snake : snakesCopy) {
-			// Copy the segmentMap
-			Segment[][] segmentMapCopy = new Segment[getGridWidth()][getGridHeight()];
-			for(int i=0;i<segmentMap.length;i++) {
-				for(int j=0;j<segmentMap[i].length;j++) {
-					if(segmentMap[i][j] instanceof Food) {
-						foodLocation = new Point(i,j);
-					}
-					segmentMapCopy[i][j]=segmentMap[i][j];
-				}
-			}
-			// Reset current snake's map position (its position will be marked again, if it still lives)
-			removeSnakeFromMap(snake);
-			// Choose action
-			Action selectedAction = snake.chooseAction(createInformationForSnake(snake, foodLocation, segmentMapCopy));
-			// Execute action
-			if(selectedAction!=null) {
-				if(selectedAction.getType()==Action.Type.STAY) {
-					// Stay
-				}else if(selectedAction.getType()==Action.Type.MOVE) {
-					// Move
-					snake.move(selectedAction.getDirection());
-				}else if(selectedAction.getType()==Action.Type.REPRODUCE) {
-					// Reproduce
-					Snake newSnake = snake.reproduce();
-					addSnakeToMap(newSnake);
-					addElement(newSnake);
-				}else if(selectedAction.getType()==Action.Type.EAT) {
-					// Eat
-					if(getSegmentAtDirection(snake.getHead().getX(), snake.getHead().getY(), selectedAction.getDirection(),segmentMapCopy) instanceof Food) {
-						Food eatedFood = (Food)getSegmentAtDirection(snake.getHead().getX(), snake.getHead().getY(), selectedAction.getDirection(),segmentMapCopy);
-						addDrawable(snake.eat(eatedFood));
-						removeDrawable(eatedFood);
-						Food newFood = Food.generateFood(segmentMapCopy);
-						addElement(newFood);
-						for(Snake current : snakes) {
-							current.setNewPathCheck(true);
-						}
-					}
-				}
-			}
-			// Add current snake to the map
-			addSnakeToMap(snake);
-			
+	public void start() {
+		super.start();
+		if(loop!=null) {
+			loop.start();
 		}
 	}
 	/**
-	 * Getter for segment map
-	 * @return the segmentMap
+	 * Stops the game loop and the simulation thread.
 	 */
-	public Segment[][] getSegmentMap() {
-		return segmentMap;
+	@Override
+	public void stop() {
+		if(loop!=null) {
+			loop.stop();
+		}
+		super.stop();
 	}
 	/**
-	 * Creates local information for a snake.
-	 * @param snake current snake
-	 * @param foodLocation location of food
-	 * @param segmentMapCopy copy of segment map
-	 * @return the Information object for current snake
+	 * Executes one tick of the world, unless the world runs on its own thread or the game is paused.
 	 */
-	private Information createInformationForSnake(Snake snake,Point foodLocation,Segment[][]segmentMapCopy) {
-		int x = snake.getHead().getX();
-		int y = snake.getHead().getY();
-
-		HashMap<Direction, Segment> segments = new HashMap<>();
-		segments.put(Direction.UP, getSegmentAtPosition(x, y - 1,segmentMapCopy));
-		segments.put(Direction.DOWN, getSegmentAtPosition(x, y + 1,segmentMapCopy));
-		segments.put(Direction.LEFT, getSegmentAtPosition(x - 1, y,segmentMapCopy));
-		segments.put(Direction.RIGHT, getSegmentAtPosition(x + 1, y,segmentMapCopy));
-
-		ArrayList<Direction> freeDirections = new ArrayList<>();
-		if (segments.get(Direction.UP) == null && isPositionInsideGrid(x, y - 1)) {
-			freeDirections.add(Direction.UP);
+	@Override
+	protected void timerTick() {
+		if(loop==null && !paused) {
+			world.step();
 		}
-		if (segments.get(Direction.DOWN) == null && isPositionInsideGrid(x, y + 1)) {
-			freeDirections.add(Direction.DOWN);
+	}
+	/**
+	 * Stops stepping the world, can be called from any thread. The display keeps showing the last state.
+	 */
+	@Override
+	public void pause() {
+		paused=true;
+		if(loop!=null) {
+			loop.pause();
 		}
-		if (segments.get(Direction.LEFT) == null && isPositionInsideGrid(x - 1, y)) {
-			freeDirections.add(Direction.LEFT);
+	}
+	/**
+	 * Continues stepping the world after pause(), can be called from any thread.
+	 */
+	@Override
+	public void resume() {
+		paused=false;
+		if(loop!=null) {
+			loop.resume();
 		}
-		if (segments.get(Direction.RIGHT) == null && isPositionInsideGrid(x + 1, y)) {
-			freeDirections.add(Direction.RIGHT);
+	}
+	/**
+	 * Checks the game is paused.
+	 * @return true if the world is not stepped
+	 */
+	@Override
+	public boolean isPaused() {
+		return paused;
+	}
+	/**
+	 * Setter for the target tick rate, can be called from any thread.
+	 * If the world is stepped by the timer, the frame rate of the timer is changed.
+	 * @param targetTickRate number of ticks per second, 0 or less for as fast as possible
+	 */
+	@Override
+	public void setTargetTickRate(double targetTickRate) {
+		if(loop!=null) {
+			loop.setTargetTickRate(targetTickRate);
+		}else {
+			SwingUtilities.invokeLater(() -> setFrameRate(targetTickRate));
 		}
-		return new Information(getGridWidth(), getGridHeight(), segments, freeDirections,snake.getHead(),foodLocation,segmentMapCopy);
+	}
+	/**
+	 * Getter for the target tick rate.
+	 * @return number of ticks per second, 0 or less for as fast as possible
+	 */
+	@Override
+	public double getTargetTickRate() {
+		return loop!=null ? loop.getTargetTickRate() : getFrameRate();
+	}
+	/**
+	 * Registers an MBean of the game to the platform MBean server, so it can be watched and controlled with JMX tools like JConsole.
+	 * Must be called before start(), because the world starts measuring its tick times.
+	 * @return the name of the registered MBean
+	 * @throws JMException if the MBean can not be registered
+	 */
+	public ObjectName registerMBean() throws JMException {
+		return SimulationMonitor.register(world, this);
+	}
+	/**
+	 * Getter for the simulated world
+	 * @return the world
+	 */
+	public SnakeWorld getWorld() {
+		return world;
+	}
+	/**
+	 * Getter for the segment grid
+	 * @return the live segment grid
+	 */
+	public SegmentGrid getGrid() {
+		return world.getGrid();
 	}
 	/**
 	 * Add new food to the game.
 	 * @param food new Food
 	 */
 	public void addElement(Food food) {
-		updateSegmentMap(food.getX(), food.getY(), food);
-		addDrawable(food);
+		world.addElement(food);
 	}
 	/**
 	 * Add new snake to the game.
 	 * @param snake new Snake
 	 */
 	public boolean addElement(Snake snake) {
-		addSnakeToMap(snake);
-		snakes.add(snake);
-		addDrawable(snake);
-		return true;
+		return world.addElement(snake);
 	}
 	/**
-	 * Remove snake from segmenMap.
-	 * @param snake the snake will be removed
+	 * Draws only the changed cells with their new types.
+	 * @param changes the cells changed in the tick
 	 */
-	private void removeSnakeFromMap(Snake snake) {
-		Segment current = snake.getHead();
-		while(current!=null) {
-			updateSegmentMap(current.getX(), current.getY(), null);
-			current=current.next;
+	@Override
+	public void cellsChanged(CellChanges changes) {
+		long start = System.nanoTime();
+		GridPanel panel = getGamePanel();
+		for(int i=0;i<changes.size();i++) {
+			drawCell(panel, changes.getX(i), changes.getY(i), changes.getType(i));
 		}
+		recordRedraw(start);
 	}
 	/**
-	 * Add snake to the segmentMap.
-	 * @param snake the snake will be added
+	 * Redraws the whole game, measured as a REDRAW phase if the world has a profiler.
 	 */
-	private void addSnakeToMap(Snake snake) {
-		Segment current = snake.getHead();
-		while(current!=null) {
-			updateSegmentMap(current.getX(), current.getY(), current);
-			current=current.next;
-		}
+	@Override
+	public void redraw() {
+		long start = System.nanoTime();
+		super.redraw();
+		recordRedraw(start);
 	}
 	/**
-	 * Updates the segment map
-	 * @param x x coordinate
-	 * @param y y coordinate
-	 * @param segment segment will be put at location
+	 * Draws all cells of the world, or of the last drawn frame if the world runs on its own thread.
 	 */
-	private void updateSegmentMap(int x,int y, Segment segment) {
-		if (isPositionInsideGrid(x, y)) {
-			segmentMap[x][y] = segment;
+	@Override
+	protected void drawAll() {
+		GridPanel panel = getGamePanel();
+		SegmentGrid grid = world.getGrid();
+		for(int y=0;y<world.getGridHeight();y++) {
+			int index = grid.indexOf(0, y);
+			for(int x=0;x<world.getGridWidth();x++,index++) {
+				byte type = loop==null ? grid.getCellType(index) : shownTypes[index];
+				if(PALETTE[type]!=0) {
+					drawCell(panel, x, y, type);
+				}
+			}
 		}
 	}
 	/**
-	 * Returns a segment at a position.
-	 * @param x x coordinate of location
-	 * @param y y coordinate of location
-	 * @param segmentMapCopy copy of segmentMap
-	 * @return the segment at that location
+	 * Repaints the region of the cells changed in the last tick.
+	 * If the world runs on its own thread, the cells changed in the latest frame are drawn first.
 	 */
-	private Segment getSegmentAtPosition(int x, int y,Segment[][]segmentMapCopy) {
-		if (!isPositionInsideGrid(x, y)) {
-			return null;
+	@Override
+	protected void update() {
+		if(loop!=null) {
+			drawFrame(loop.takeFrame());
 		}
-		return segmentMapCopy[x][y];
+		getGamePanel().repaintDirty();
 	}
 	/**
-	 * Returns a segment at a direction.
-	 * @param x x coordinate of location
-	 * @param y y coordinate of location
-	 * @param direction the direction will be looked
-	 * @param segmentMapCopy copy of segmentMap
-	 * @return the segment at that direction
+	 * Draws the changed cells of a frame whose types differ from the drawn ones, if the frame was not drawn yet.
+	 * @param frame the latest frame of the simulation loop
 	 */
-	private Segment getSegmentAtDirection(int x, int y, Direction direction,Segment[][]segmentMapCopy) {
-		if (direction == null) {
-			return null;
+	private void drawFrame(Frame frame) {
+		if(frame.tick==shownTick) {
+			return;
+		}
+		long start = System.nanoTime();
+		GridPanel panel = getGamePanel();
+		SegmentGrid grid = world.getGrid();
+		for(int i=0;i<frame.size;i++) {
+			int index = frame.cells[i];
+			byte type = frame.types[i];
+			if(type==shownTypes[index]) {
+				continue;
+			}
+			shownTypes[index]=type;
+			drawCell(panel, grid.xOf(index), grid.yOf(index), type);
 		}
-		int xTarget = x;
-		int yTarget = y;
-		if (direction == Direction.UP) {
-			yTarget--;
-		} else if (direction == Direction.DOWN) {
-			yTarget++;
-		} else if (direction == Direction.LEFT) {
-			xTarget--;
-		} else if (direction == Direction.RIGHT) {
-			xTarget++;
+		shownTick=frame.tick;
+		recordRedraw(start);
+	}
+	/**
+	 * Records drawing to the profiler of the world if it has one.
+	 * @param start the value of System.nanoTime() when drawing started
+	 */
+	private void recordRedraw(long start) {
+		TickProfiler profiler = world.getProfiler();
+		if(profiler!=null) {
+			profiler.record(TickPhase.REDRAW, start);
 		}
-		return getSegmentAtPosition(xTarget, yTarget,segmentMapCopy);
 	}
 	/**
-	 * Checks is the position inside the gird.
-	 * @param x x coordinate of position
-	 * @param y y coordinate of position
-	 * @return is the position inside the grid or not
+	 * Erases a cell and draws it with the colour of its type.
+	 * @param panel the panel to draw on
+	 * @param x x coordinate of the cell
+	 * @param y y coordinate of the cell
+	 * @param type the cell type
 	 */
-	private boolean isPositionInsideGrid(int x, int y) {
-		return (x >= 0 && x < getGridWidth()) && (y >= 0 && y < getGridHeight());
+	private static void drawCell(GridPanel panel, int x, int y, byte type) {
+		panel.eraseSquare(x, y);
+		int color = PALETTE[type];
+		if(color==0) {
+			return;
+		}
+		if(SMALL[type]) {
+			panel.drawSmallSquare(x, y, color);
+		}else {
+			panel.drawSquare(x, y, color);
+		}
 	}
 }
@@ -0,0 +1,1028 @@
+package snakesimulator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+import elements.Food;
+import elements.Segment;
+import elements.Snake;
+import ability.Direction;
+import ai.Action;
+import ai.BreadthFirstSearch;
+import ai.DistanceField;
+import ai.GridView;
+import ai.Information;
+import ai.Path;
+import ai.PathFinder;
+import ai.PathIndex;
+import ai.SplitRandom;
+
+/**
+ * Class that holds the state of a Snake Simulator world and implements its game logic.
+ * The world does not depend on Swing, it can be stepped as fast as possible without any display.
+ * Renderers can follow the changes of the world with a WorldListener.
+ *
+ */
+public class SnakeWorld {
+	/**
+	 * Number of shards of SHARDED mode unless it is set, fixed so that runs do not depend on the number of processors.
+	 */
+	public static final int DEFAULT_SHARD_COUNT = 8;
+
+	private final int gridWidth;
+	private final int gridHeight;
+	private List<Snake> snakes;
+	private SegmentGrid grid;
+	private FoodRegistry foods;
+	private Supplier<? extends PathFinder> pathFinderFactory = BreadthFirstSearch::new;
+	private TickProfiler profiler;
+	private Histogram tickTimes;
+	private PathFinder pathFinder = newPathFinder();
+	// Path finders of the worker threads of PARALLEL mode, and their wrappers while the world has a profiler
+	private ThreadLocal<PathFinder> workerPathFinders = ThreadLocal.withInitial(pathFinderFactory);
+	private ThreadLocal<PathFinder> profiledWorkerPathFinders;
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	private int shardCount = DEFAULT_SHARD_COUNT;
+	private Shard[] shards;
+	private int[] shardOfRow;
+	private int maxSnakes = Integer.MAX_VALUE;
+	private PathIndex pathIndex = new PathIndex();
+	private Navigation navigation = Navigation.PATH_PER_SNAKE;
+	private DistanceField distanceField = new DistanceField();
+	private boolean distanceFieldValid=false;
+	private long distanceFieldTick=-1;
+	private int[] foodCells = new int[1];
+	private final Information information = new Information();
+	private Information[] informations = new Information[0];
+	private TickMode tickMode = TickMode.SEQUENTIAL;
+	private BodyStorage bodyStorage = BodyStorage.SEGMENTS;
+	private WorldListener listener;
+	private long tickCount=0;
+	private long replans=0;
+	private long foodsEaten=0;
+	private final WorldStats stats;
+	private final SplitRandom random;
+	/**
+	 * Creates a new empty world with a seed taken from the clock.
+	 * @param gridWidth number of grid squares along the width
+	 * @param gridHeight number of grid squares along the height
+	 */
+	public SnakeWorld(int gridWidth, int gridHeight) {
+		this(gridWidth, gridHeight, System.nanoTime());
+	}
+	/**
+	 * Creates a new empty world.
+	 * Every random choice in the world comes from the seed, so two worlds with the same seed and the same elements
+	 * run the same way in the same tick mode, whatever the number of threads is. SYNCHRONOUS and PARALLEL mode
+	 * also run the same way as each other.
+	 * @param gridWidth number of grid squares along the width
+	 * @param gridHeight number of grid squares along the height
+	 * @param seed the seed of the random number generator of the world
+	 */
+	public SnakeWorld(int gridWidth, int gridHeight, long seed) {
+		this.random = new SplitRandom(seed);
+		this.gridWidth = gridWidth;
+		this.gridHeight = gridHeight;
+		snakes = new ArrayList<Snake>();
+		foods = new FoodRegistry(gridWidth, gridHeight);
+		grid = new SegmentGrid(gridWidth, gridHeight, foods);
+		stats = new WorldStats(gridWidth*gridHeight);
+	}
+	/**
+	 * Setter for the listener of the world.
+	 * @param listener the listener will be notified about changes, null for no listener
+	 */
+	public void setListener(WorldListener listener) {
+		this.listener = listener;
+	}
+	/**
+	 * Setter for the tick mode.
+	 * @param tickMode the way snakes see the world during a tick
+	 */
+	public void setTickMode(TickMode tickMode) {
+		// The shards only follow the snakes in SHARDED mode, so they are built again after another mode
+		if(this.tickMode!=tickMode) {
+			shards = null;
+		}
+		this.tickMode = tickMode;
+	}
+	/**
+	 * Setter for the body storage of the snakes added from now on.
+	 * Snakes already in the world keep their storage. With RING_BUFFER every snake added from now on, the children
+	 * of the snakes included, is moved to a ring buffer when it is added. With SEGMENTS the added snakes are not changed,
+	 * so the children of snakes with ring buffers still get ring buffers.
+	 * @param bodyStorage the way snakes keep their bodies
+	 * @throws IllegalArgumentException if the storage is RING_BUFFER and the grid is too large for packed cells
+	 */
+	public void setBodyStorage(BodyStorage bodyStorage) {
+		if(bodyStorage==BodyStorage.RING_BUFFER && !fitsRingBuffer()) {
+			throw new IllegalArgumentException("A grid of "+gridWidth+"x"+gridHeight+" is too large for ring buffers");
+		}
+		this.bodyStorage = bodyStorage;
+	}
+	/**
+	 * Checks every cell of the grid can be packed into the ring buffer of a snake.
+	 * @return true if no coordinate is larger than Snake.MAX_RING_COORDINATE
+	 */
+	private boolean fitsRingBuffer() {
+		return gridWidth-1<=Snake.MAX_RING_COORDINATE && gridHeight-1<=Snake.MAX_RING_COORDINATE;
+	}
+	/**
+	 * Getter for the body storage.
+	 * @return the way snakes added from now on keep their bodies
+	 */
+	public BodyStorage getBodyStorage() {
+		return bodyStorage;
+	}
+	/**
+	 * Getter for the tick mode.
+	 * @return the way snakes see the world during a tick
+	 */
+	public TickMode getTickMode() {
+		return tickMode;
+	}
+	/**
+	 * Setter for the navigation of snakes.
+	 * @param navigation the way snakes find their way to the food
+	 */
+	public void setNavigation(Navigation navigation) {
+		this.navigation = navigation;
+		distanceFieldValid=false;
+	}
+	/**
+	 * Getter for the navigation of snakes.
+	 * @return the way snakes find their way to the food
+	 */
+	public Navigation getNavigation() {
+		return navigation;
+	}
+	/**
+	 * Setter for the path finder.
+	 * The path finder is used by the snakes when the navigation is PATH_PER_SNAKE.
+	 * Path finders keep buffers, so the world creates one for itself, one for each worker thread of PARALLEL mode
+	 * and one for each shard. The path finders of the shards are replaced in place, the snakes stay in their shards.
+	 * @param pathFinderFactory creates instances of the path finding algorithm of the world, e.g. AStarSearch::new
+	 */
+	public void setPathFinder(Supplier<? extends PathFinder> pathFinderFactory) {
+		this.pathFinderFactory = pathFinderFactory;
+		pathFinder = newPathFinder();
+		workerPathFinders = ThreadLocal.withInitial(pathFinderFactory);
+		profiledWorkerPathFinders = profiledWorkerPathFinders();
+		if(shards!=null) {
+			for(Shard shard : shards) {
+				shard.pathFinder = newPathFinder();
+			}
+		}
+	}
+	/**
+	 * Setter for the profiler, must not be called while a tick is running.
+	 * While the world has a profiler, the phases of every tick and every path search are measured and recorded to it.
+	 * The path finders of the world are kept and only wrapped or unwrapped, so measuring does not change a run.
+	 * @param profiler the profiler, null to stop measuring
+	 */
+	public void setProfiler(TickProfiler profiler) {
+		this.profiler = profiler;
+		pathFinder = profiled(pathFinder);
+		profiledWorkerPathFinders = profiledWorkerPathFinders();
+		if(shards!=null) {
+			for(Shard shard : shards) {
+				shard.pathFinder = profiled(shard.pathFinder);
+			}
+		}
+	}
+	/**
+	 * Getter for the profiler.
+	 * @return the profiler or null if the ticks are not measured
+	 */
+	public TickProfiler getProfiler() {
+		return profiler;
+	}
+	/**
+	 * Makes the world measure the duration of every tick, must not be called while a tick is running.
+	 * Only the whole tick is measured, so this costs much less than a profiler.
+	 * @return the histogram of the tick durations in nanoseconds, the same one on every call
+	 */
+	public Histogram measureTickTimes() {
+		if(tickTimes==null) {
+			tickTimes = new Histogram();
+		}
+		return tickTimes;
+	}
+	/**
+	 * Getter for the path finder.
+	 * @return the path finding algorithm of the world
+	 */
+	public PathFinder getPathFinder() {
+		return pathFinder;
+	}
+	/**
+	 * Setter for the fork-join pool used by PARALLEL mode.
+	 * @param pool the pool of the worker threads
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+	/**
+	 * Setter for the number of shards used by SHARDED mode.
+	 * The world is split to this many horizontal stripes, the result of a tick depends on the number of shards but not on the threads.
+	 * The default does not depend on the machine, so a seed gives the same run everywhere.
+	 * Changing the number builds the shards again from the order of the snakes in the world.
+	 * @param shardCount number of shards, DEFAULT_SHARD_COUNT by default
+	 */
+	public void setShardCount(int shardCount) {
+		if(this.shardCount!=shardCount) {
+			shards = null;
+		}
+		this.shardCount = shardCount;
+	}
+	/**
+	 * Getter for the number of shards used by SHARDED mode.
+	 * @return number of shards
+	 */
+	public int getShardCount() {
+		return shardCount;
+	}
+	/**
+	 * Setter for the largest number of snakes in the world.
+	 * A snake which reproduces in a world with this many snakes still loses the half of its body, but the child
+	 * is not added and its cells become empty, so the population stays at the limit while the snakes keep eating.
+	 * @param maxSnakes largest number of snakes, Integer.MAX_VALUE by default
+	 * @throws IllegalArgumentException if the number is smaller than 1
+	 */
+	public void setMaxSnakes(int maxSnakes) {
+		if(maxSnakes<1) {
+			throw new IllegalArgumentException("Invalid number of snakes "+maxSnakes);
+		}
+		this.maxSnakes = maxSnakes;
+	}
+	/**
+	 * Getter for the largest number of snakes in the world.
+	 * @return largest number of snakes
+	 */
+	public int getMaxSnakes() {
+		return maxSnakes;
+	}
+	/**
+	 * Runs the world for a number of ticks.
+	 * @param nTicks number of ticks
+	 */
+	public void run(long nTicks) {
+		for(long i=0;i<nTicks;i++) {
+			step();
+		}
+	}
+	/**
+	 * Determine and execute actions for all snakes.
+	 * In SYNCHRONOUS and PARALLEL mode all snakes choose their actions against the state at the start of the tick,
+	 * one after another or at the same time, then the actions are executed one by one in the order of the snakes.
+	 * The foods, the cached paths and the distance field are changed only by the actions, after every snake has chosen,
+	 * so the two modes run the same way. An action whose target cell has been taken by an earlier snake
+	 * in the same tick is not executed, so the result does not depend on the threads.
+	 * At the end of the tick the listener gets the cells changed in the tick.
+	 * If the world has a profiler, the phases of the tick are recorded to it, and every tick is recorded
+	 * as a Tick event if a flight recording with this event is running. After measureTickTimes() the duration of
+	 * every tick is recorded too.
+	 */
+	public void step() {
+		TickEvent event = new TickEvent();
+		event.begin();
+		long tickStart = profiler==null && tickTimes==null ? 0 : System.nanoTime();
+		grid.beginTick();
+		GridView view = tickMode==TickMode.SEQUENTIAL ? grid : grid.tickStart();
+		Snake[] snakesCopy = snakes.toArray(new Snake[0]);
+		endPhase(TickPhase.SNAPSHOT, tickStart);
+		if(tickMode==TickMode.SHARDED) {
+			stepSharded(view);
+		}else if(tickMode==TickMode.PARALLEL || tickMode==TickMode.SYNCHRONOUS) {
+			if(navigation==Navigation.DISTANCE_FIELD) {
+				refreshDistanceField(view);
+			}
+			Information[] informations = informationsFor(snakesCopy.length);
+			Action[] actions = new Action[snakesCopy.length];
+			if(tickMode==TickMode.PARALLEL) {
+				pool.invoke(new DecideTask(snakesCopy, informations, actions, view, 0, snakesCopy.length));
+			}else {
+				for(int i=0;i<snakesCopy.length;i++) {
+					long start = startPhase();
+					createInformationForSnake(informations[i], snakesCopy[i], view, pathFinder);
+					start = endPhase(TickPhase.INFORMATION, start);
+					actions[i]=snakesCopy[i].chooseAction(informations[i]);
+					endPhase(TickPhase.CHOOSE_ACTION, start);
+				}
+			}
+			// Paths are registered before any action, so an eat in this tick invalidates the new paths too
+			for(int i=0;i<snakesCopy.length;i++) {
+				registerGeneratedPath(informations[i]);
+			}
+			for(int i=0;i<snakesCopy.length;i++) {
+				long start = startPhase();
+				executeAction(snakesCopy[i], actions[i]);
+				endPhase(TickPhase.APPLY_ACTION, start);
+			}
+		}else {
+			for(Snake snake : snakesCopy) {
+				if(navigation==Navigation.DISTANCE_FIELD) {
+					refreshDistanceField(view);
+				}
+				// Choose action
+				long start = startPhase();
+				Information information = createInformationForSnake(this.information, snake, view, pathFinder);
+				start = endPhase(TickPhase.INFORMATION, start);
+				Action selectedAction = snake.chooseAction(information);
+				start = endPhase(TickPhase.CHOOSE_ACTION, start);
+				registerGeneratedPath(information);
+				executeAction(snake, selectedAction);
+				endPhase(TickPhase.APPLY_ACTION, start);
+			}
+		}
+		if(listener!=null) {
+			listener.cellsChanged(grid.getChanges());
+		}
+		if(event.shouldCommit()) {
+			event.tick=tickCount;
+			event.tickMode=tickMode.name();
+			event.snakes=snakes.size();
+			event.foods=foods.size();
+			event.changedCells=grid.getChanges().size();
+			event.commit();
+		}
+		grid.clearChanges();
+		tickCount++;
+		stats.publish(tickCount, snakes.size(), foods.size(), grid.getFreeCellCount(), replans, foodsEaten);
+		if(tickTimes!=null) {
+			tickTimes.record(System.nanoTime()-tickStart);
+		}
+		endPhase(TickPhase.TICK, tickStart);
+	}
+	/**
+	 * Returns the start time of a phase if the world has a profiler.
+	 * @return the value of System.nanoTime() or 0 if the ticks are not measured
+	 */
+	private long startPhase() {
+		return profiler==null ? 0 : System.nanoTime();
+	}
+	/**
+	 * Records a phase to the profiler if the world has one.
+	 * @param phase the phase
+	 * @param start the start time of the phase
+	 * @return the end time of the phase, which can be the start of the next phase
+	 */
+	private long endPhase(TickPhase phase, long start) {
+		return profiler==null ? 0 : profiler.record(phase, start);
+	}
+	/**
+	 * Creates a path finder, wrapped to measure its searches if the world has a profiler.
+	 * @return the path finder
+	 */
+	private PathFinder newPathFinder() {
+		return profiled(pathFinderFactory.get());
+	}
+	/**
+	 * Wraps a path finder to measure its searches with the current profiler, or unwraps it if there is no profiler.
+	 * @param finder a path finder of the world, wrapped or not
+	 * @return the same path finder, wrapped if the world has a profiler
+	 */
+	private PathFinder profiled(PathFinder finder) {
+		if(finder instanceof ProfiledPathFinder) {
+			finder = ((ProfiledPathFinder)finder).getPathFinder();
+		}
+		return profiler==null ? finder : new ProfiledPathFinder(finder, profiler);
+	}
+	/**
+	 * Creates the wrappers of the path finders of the worker threads for the current profiler.
+	 * @return the wrappers, null if the world has no profiler
+	 */
+	private ThreadLocal<PathFinder> profiledWorkerPathFinders() {
+		if(profiler==null) {
+			return null;
+		}
+		ThreadLocal<PathFinder> finders = workerPathFinders;
+		TickProfiler workerProfiler = profiler;
+		return ThreadLocal.withInitial(() -> new ProfiledPathFinder(finders.get(), workerProfiler));
+	}
+	/**
+	 * Executes a tick in SHARDED mode.
+	 * First every shard lets its snakes choose their actions against the state at the start of the tick.
+	 * Then every shard executes the moves which stay inside its own stripe. These moves write only their own
+	 * new head and old head cells and their freed tail cells, which no other snake targets in this tick.
+	 * Actions which need the rows of a neighbour stripe, eats and reproductions are executed afterwards
+	 * on one thread in the order of shards and snakes. Finally snakes whose heads crossed a stripe are handed off.
+	 * @param view the state of the map at the start of the tick
+	 */
+	private void stepSharded(GridView view) {
+		if(shards==null) {
+			buildShards();
+		}
+		if(navigation==Navigation.DISTANCE_FIELD) {
+			refreshDistanceField(view);
+		}
+		for(Shard shard : shards) {
+			shard.beginTick();
+		}
+		pool.invoke(new ShardTask(view, true, 0, shards.length));
+		pool.invoke(new ShardTask(view, false, 0, shards.length));
+		// Paths are registered before any eat, so an eat in this tick invalidates the new paths too
+		for(Shard shard : shards) {
+			for(int i=0;i<shard.count;i++) {
+				registerGeneratedPath(shard.informations[i]);
+			}
+		}
+		for(Shard shard : shards) {
+			for(int i=0;i<shard.count;i++) {
+				if(shard.deferred[i]) {
+					long start = startPhase();
+					executeAction(shard.snakes.get(i), shard.actions[i]);
+					endPhase(TickPhase.APPLY_ACTION, start);
+				}
+			}
+		}
+		// Hand off the snakes whose heads left their stripe
+		for(Shard shard : shards) {
+			for(Snake snake : shard.snakes) {
+				Shard owner = shardOf(snake);
+				if(owner==shard) {
+					shard.staying.add(snake);
+				}else {
+					owner.arrivals.add(snake);
+				}
+			}
+		}
+		for(Shard shard : shards) {
+			shard.finishHandOff();
+		}
+	}
+	/**
+	 * Lets the snakes of a shard choose their actions.
+	 * @param shard the shard
+	 * @param view the state of the map at the start of the tick
+	 */
+	private void decideInShard(Shard shard, GridView view) {
+		for(int i=0;i<shard.count;i++) {
+			Snake snake = shard.snakes.get(i);
+			long start = startPhase();
+			shard.informations[i]=createInformationForSnake(shard.informations[i], snake, view, shard.pathFinder);
+			start = endPhase(TickPhase.INFORMATION, start);
+			shard.actions[i]=snake.chooseAction(shard.informations[i]);
+			endPhase(TickPhase.CHOOSE_ACTION, start);
+		}
+	}
+	/**
+	 * Executes the moves of a shard which stay inside its stripe, the other actions are marked as deferred.
+	 * @param shard the shard
+	 */
+	private void moveInShard(Shard shard) {
+		for(int i=0;i<shard.count;i++) {
+			Snake snake = shard.snakes.get(i);
+			Action action = shard.actions[i];
+			shard.deferred[i]=false;
+			if(action==null || action.getType()==Action.Type.STAY) {
+				continue;
+			}
+			if(action.getType()==Action.Type.MOVE) {
+				int target = getTargetIndex(snake.getHeadX(), snake.getHeadY(), action.getDirection());
+				if(target>=0 && shard.owns(grid.yOf(target))) {
+					if(grid.getCellType(target)==GridView.EMPTY) {
+						long start = startPhase();
+						moveOnMap(snake, action.getDirection());
+						endPhase(TickPhase.APPLY_ACTION, start);
+					}
+					continue;
+				}
+			}
+			shard.deferred[i]=true;
+		}
+	}
+	/**
+	 * Splits the rows of the world to stripes and gives every snake to the shard of its head.
+	 */
+	private void buildShards() {
+		int count = Math.max(1, Math.min(shardCount, gridHeight));
+		shards = new Shard[count];
+		shardOfRow = new int[gridHeight];
+		for(int i=0;i<count;i++) {
+			int rowFrom = i*gridHeight/count;
+			int rowTo = (i+1)*gridHeight/count;
+			shards[i] = new Shard(rowFrom, rowTo, newPathFinder());
+			for(int y=rowFrom;y<rowTo;y++) {
+				shardOfRow[y]=i;
+			}
+		}
+		for(Snake snake : snakes) {
+			shardOf(snake).snakes.add(snake);
+		}
+	}
+	/**
+	 * Finds the shard which owns a snake.
+	 * @param snake the snake
+	 * @return the shard of the stripe of the snake's head
+	 */
+	private Shard shardOf(Snake snake) {
+		return shards[shardOfRow[snake.getHeadY()]];
+	}
+	/**
+	 * Executes the action of a snake on the live map.
+	 * @param snake current snake
+	 * @param selectedAction the action chosen by the snake
+	 */
+	private void executeAction(Snake snake, Action selectedAction) {
+		if(selectedAction==null) {
+			return;
+		}
+		// The target is checked on the live map, an earlier snake may have taken it in this tick
+		int target = getTargetIndex(snake.getHeadX(), snake.getHeadY(), selectedAction.getDirection());
+		// Execute action
+		if(selectedAction.getType()==Action.Type.STAY) {
+			// Stay
+		}else if(selectedAction.getType()==Action.Type.MOVE) {
+			// Move
+			if(target>=0 && grid.getCellType(target)==GridView.EMPTY) {
+				moveOnMap(snake, selectedAction.getDirection());
+			}
+		}else if(selectedAction.getType()==Action.Type.REPRODUCE) {
+			// Reproduce
+			Snake newSnake = snake.reproduce();
+			if(snakes.size()<maxSnakes) {
+				addElement(newSnake);
+			}else {
+				for(int i=0;i<newSnake.getSize();i++) {
+					grid.set(newSnake.getX(i), newSnake.getY(i), null, GridView.EMPTY);
+				}
+			}
+		}else if(selectedAction.getType()==Action.Type.EAT) {
+			// Eat
+			if(target>=0 && grid.getCellType(target)==GridView.FOOD) {
+				Food eatedFood = foods.getFoodAt(grid.xOf(target), grid.yOf(target));
+				foods.remove(eatedFood);
+				foodsEaten++;
+				Segment newSegment = snake.eat(eatedFood);
+				writeHeadToMap(snake);
+				if(listener!=null) {
+					if(newSegment!=null) {
+						listener.segmentAdded(newSegment);
+					}
+					listener.foodRemoved(eatedFood);
+				}
+				// New food is placed after the snake has its new head
+				long start = startPhase();
+				Food newFood = grid.generateFood(random);
+				if(newFood!=null) {
+					addElement(newFood);
+				}
+				endPhase(TickPhase.FOOD_SPAWN, start);
+				// Only the paths crossing the eaten food are out of date
+				pathIndex.invalidate(grid.indexOf(eatedFood.getX(), eatedFood.getY()));
+			}
+		}
+	}
+	/**
+	 * Moves a snake and writes only the changed cells to the map:
+	 * the freed tail cell, the old head which becomes a body segment and the new head.
+	 * @param snake the snake will be moved
+	 * @param direction direction of movement
+	 */
+	private void moveOnMap(Snake snake, Direction direction) {
+		int tailX = snake.getTailX();
+		int tailY = snake.getTailY();
+		snake.move(direction);
+		writeNeckToMap(snake);
+		grid.move(tailX, tailY, snake.getHeadX(), snake.getHeadY(), snake.getHead(), GridView.SNAKE_HEAD);
+	}
+	/**
+	 * Writes the head of a snake and the segment after it to the map.
+	 * @param snake the snake which has a new head
+	 */
+	private void writeHeadToMap(Snake snake) {
+		writeNeckToMap(snake);
+		grid.set(snake.getHeadX(), snake.getHeadY(), snake.getHead(), GridView.SNAKE_HEAD);
+	}
+	/**
+	 * Writes the segment after the head of a snake, which was the head before, to the map as a body segment.
+	 * @param snake the snake which has a new head
+	 */
+	private void writeNeckToMap(Snake snake) {
+		if(snake.getSize()>1) {
+			Segment head = snake.getHead();
+			grid.set(snake.getX(1), snake.getY(1), head==null ? null : head.next, GridView.SNAKE_BODY);
+		}
+	}
+	/**
+	 * Returns the reused informations of PARALLEL mode, one for every snake of the tick.
+	 * @param count number of snakes
+	 * @return array with at least count informations
+	 */
+	private Information[] informationsFor(int count) {
+		if(informations.length<count) {
+			Information[] grown = Arrays.copyOf(informations, Math.max(count, informations.length*2));
+			for(int i=informations.length;i<grown.length;i++) {
+				grown[i] = new Information();
+			}
+			informations = grown;
+		}
+		return informations;
+	}
+	/**
+	 * Registers the path generated while a snake chose its action to the path index.
+	 * @param information the information given to the snake
+	 */
+	private void registerGeneratedPath(Information information) {
+		if(information.getGeneratedPath()!=null) {
+			pathIndex.update(information.getGeneratedPath(), grid.getStride()*(gridHeight+2));
+			replans+=information.getGeneratedPathCount();
+		}
+	}
+	/**
+	 * Computes the distance field again if the foods have changed.
+	 * A field marked stale by a blocked snake is computed again at most once per tick.
+	 * @param view the state of the map the snakes see
+	 */
+	private void refreshDistanceField(GridView view) {
+		int count = foods.size();
+		if(count==0) {
+			return;
+		}
+		if(!distanceFieldValid || (distanceField.isStale() && distanceFieldTick!=tickCount)) {
+			if(foodCells.length<count) {
+				foodCells = new int[Math.max(count, foodCells.length*2)];
+			}
+			for(int i=0;i<count;i++) {
+				Food food = foods.get(i);
+				foodCells[i]=view.indexOf(food.getX(), food.getY());
+			}
+			long start = startPhase();
+			distanceField.compute(view, foodCells, count);
+			replans++;
+			endPhase(TickPhase.GENERATE_PATH, start);
+			distanceFieldValid=true;
+			distanceFieldTick=tickCount;
+		}
+	}
+	/**
+	 * Getter for the random number generator of the world
+	 * @return the generator which places foods and gives snakes their generators
+	 */
+	public SplitRandom getRandom() {
+		return random;
+	}
+	/**
+	 * Getter for the segment grid
+	 * @return the live segment grid
+	 */
+	public SegmentGrid getGrid() {
+		return grid;
+	}
+	/**
+	 * Getter for the food registry
+	 * @return the index of foods in the world
+	 */
+	public FoodRegistry getFoods() {
+		return foods;
+	}
+	/**
+	 * Getter for the path index
+	 * @return the index of cached paths of the snakes
+	 */
+	public PathIndex getPathIndex() {
+		return pathIndex;
+	}
+	/**
+	 * Getter for the snakes in the world
+	 * @return list of snakes
+	 */
+	public List<Snake> getSnakes() {
+		return snakes;
+	}
+	/**
+	 * Writes the state of the world after its size and random state, for WorldSnapshot.
+	 * The state includes every order which decides a later tick: the order of the snakes and their shards,
+	 * of the foods and of the empty cells, and the distance field if it is still used.
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	void writeState(MappedOutput out) throws IOException {
+		out.writeUTF(tickMode.name());
+		out.writeUTF(navigation.name());
+		out.writeUTF(bodyStorage.name());
+		out.writeInt(shardCount);
+		out.writeInt(maxSnakes);
+		out.writeLong(tickCount);
+		out.writeLong(replans);
+		out.writeLong(foodsEaten);
+		foods.writeTo(out);
+		out.writeInt(snakes.size());
+		IdentityHashMap<Snake, Integer> indices = new IdentityHashMap<Snake, Integer>();
+		for(Snake snake : snakes) {
+			indices.put(snake, indices.size());
+			snake.writeTo(out);
+		}
+		if(shards==null) {
+			out.writeInt(-1);
+		}else {
+			out.writeInt(shards.length);
+			for(Shard shard : shards) {
+				out.writeInt(shard.snakes.size());
+				for(Snake snake : shard.snakes) {
+					out.writeInt(indices.get(snake));
+				}
+			}
+		}
+		grid.writeFreeCells(out);
+		out.writeBoolean(distanceFieldValid);
+		out.writeLong(distanceFieldTick);
+		if(distanceFieldValid) {
+			distanceField.writeTo(grid, out);
+		}
+	}
+	/**
+	 * Reads the state written by writeState(...) into this new world, which has the size and random state of the written one.
+	 * The cached paths of the snakes are registered to the path index again.
+	 * @param in the input
+	 * @throws IOException if the input can not be read or does not fit the world
+	 */
+	void readState(MappedInput in) throws IOException {
+		try {
+			tickMode = TickMode.valueOf(in.readUTF());
+			navigation = Navigation.valueOf(in.readUTF());
+			bodyStorage = BodyStorage.valueOf(in.readUTF());
+		}catch(IllegalArgumentException e) {
+			throw new IOException("Unknown mode in the snapshot", e);
+		}
+		if(bodyStorage==BodyStorage.RING_BUFFER && !fitsRingBuffer()) {
+			throw new IOException("The grid of the snapshot is too large for ring buffers");
+		}
+		shardCount = in.readInt();
+		if(shardCount<1) {
+			throw new IOException("Invalid number of shards "+shardCount+" in the snapshot");
+		}
+		maxSnakes = in.readInt();
+		if(maxSnakes<1) {
+			throw new IOException("Invalid number of snakes "+maxSnakes+" in the snapshot");
+		}
+		tickCount = in.readLong();
+		replans = in.readLong();
+		foodsEaten = in.readLong();
+		foods.readFrom(in);
+		for(int i=0;i<foods.size();i++) {
+			Food food = foods.get(i);
+			grid.set(food.getX(), food.getY(), food);
+		}
+		int snakeCount = in.readInt();
+		for(int i=0;i<snakeCount;i++) {
+			Snake snake = Snake.readFrom(in, gridWidth*gridHeight);
+			for(int j=0;j<snake.getSize();j++) {
+				int x = snake.getX(j);
+				int y = snake.getY(j);
+				if(x<0 || x>=gridWidth || y<0 || y>=gridHeight || grid.getCellType(grid.indexOf(x, y))!=GridView.EMPTY) {
+					throw new IOException("A snake of the snapshot does not fit the grid");
+				}
+			}
+			addSnakeToMap(snake);
+			snakes.add(snake);
+		}
+		int shardsWritten = in.readInt();
+		if(shardsWritten>=0) {
+			buildShards();
+			if(shards.length!=shardsWritten) {
+				throw new IOException("The shards of the snapshot do not match the world");
+			}
+			for(Shard shard : shards) {
+				shard.snakes.clear();
+				int count = in.readInt();
+				for(int i=0;i<count;i++) {
+					int index = in.readInt();
+					if(index<0 || index>=snakes.size()) {
+						throw new IOException("The shards of the snapshot do not match the world");
+					}
+					shard.snakes.add(snakes.get(index));
+				}
+			}
+		}
+		grid.readFreeCells(in);
+		distanceFieldValid = in.readBoolean();
+		distanceFieldTick = in.readLong();
+		if(distanceFieldValid) {
+			distanceField.readFrom(grid, in);
+		}
+		for(Snake snake : snakes) {
+			Path path = snake.getPath();
+			if(!path.isEmpty() && !path.isInvalidated()) {
+				pathIndex.update(path, grid.getStride()*(gridHeight+2));
+			}
+		}
+		stats.publish(tickCount, snakes.size(), foods.size(), grid.getFreeCellCount(), replans, foodsEaten);
+	}
+	/**
+	 * Getter for the counters of the world, which other threads can read while the world is running.
+	 * @return the counters as they were at the end of the last tick
+	 */
+	public WorldStats getStats() {
+		return stats;
+	}
+	/**
+	 * Getter for the number of executed ticks
+	 * @return number of ticks
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+	/**
+	 * Getter for the width of the grid world
+	 * @return number of grid squares along the width
+	 */
+	public int getGridWidth() {
+		return gridWidth;
+	}
+	/**
+	 * Getter for the height of the grid world
+	 * @return number of grid squares along the height
+	 */
+	public int getGridHeight() {
+		return gridHeight;
+	}
+	/**
+	 * Resets the local information for a snake.
+	 * @param information the reused information object
+	 * @param snake current snake
+	 * @param view the state of the map the snake sees
+	 * @param finder the path finder of the current thread
+	 * @return the Information object for current snake
+	 */
+	private Information createInformationForSnake(Information information,Snake snake,GridView view,PathFinder finder) {
+		information.reset(view, snake.getHeadX(), snake.getHeadY(), foods, finder,
+				navigation==Navigation.DISTANCE_FIELD ? distanceField : null);
+		return information;
+	}
+	/**
+	 * Add new food to the world.
+	 * @param food new Food
+	 */
+	public void addElement(Food food) {
+		grid.set(food.getX(), food.getY(), food);
+		foods.add(food);
+		distanceFieldValid=false;
+		if(listener!=null) {
+			listener.foodAdded(food);
+		}
+	}
+	/**
+	 * Adds foods to random empty cells of the world.
+	 * Every eaten food is replaced by a new one, so the world keeps this many more foods.
+	 * Fewer foods are added if the grid gets full.
+	 * @param count number of foods to add
+	 */
+	public void addFoods(int count) {
+		for(int i=0;i<count;i++) {
+			Food food = grid.generateFood(random);
+			if(food==null) {
+				return;
+			}
+			addElement(food);
+		}
+	}
+	/**
+	 * Add new snake to the world.
+	 * The snake is moved to a ring buffer if the body storage of the world is RING_BUFFER.
+	 * @param snake new Snake
+	 */
+	public boolean addElement(Snake snake) {
+		if(bodyStorage==BodyStorage.RING_BUFFER) {
+			snake.useRingBuffer();
+		}
+		snake.setRandom(random.split());
+		addSnakeToMap(snake);
+		snakes.add(snake);
+		if(shards!=null) {
+			shardOf(snake).snakes.add(snake);
+		}
+		if(listener!=null) {
+			listener.snakeAdded(snake);
+		}
+		return true;
+	}
+	/**
+	 * Add snake to the segment grid.
+	 * @param snake the snake will be added
+	 */
+	private void addSnakeToMap(Snake snake) {
+		Segment current = snake.getHead();
+		for(int i=0;i<snake.getSize();i++) {
+			grid.set(snake.getX(i), snake.getY(i), current, i==0 ? GridView.SNAKE_HEAD : GridView.SNAKE_BODY);
+			if(current!=null) {
+				current=current.next;
+			}
+		}
+	}
+	/**
+	 * Returns the index of the cell at a direction.
+	 * @param x x coordinate of location
+	 * @param y y coordinate of location
+	 * @param direction the direction will be looked
+	 * @return the index of the cell at that direction, -1 if there is no direction
+	 */
+	private int getTargetIndex(int x, int y, Direction direction) {
+		if (direction == null) {
+			return -1;
+		}
+		int xTarget = x;
+		int yTarget = y;
+		if (direction == Direction.UP) {
+			yTarget--;
+		} else if (direction == Direction.DOWN) {
+			yTarget++;
+		} else if (direction == Direction.LEFT) {
+			xTarget--;
+		} else if (direction == Direction.RIGHT) {
+			xTarget++;
+		}
+		return grid.indexOf(xTarget, yTarget);
+	}
+	/**
+	 * Fork-join task that lets a range of snakes choose their actions.
+	 * Every worker thread uses its own path finder, the snakes only read the map.
+	 */
+	private class DecideTask extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+		private static final int THRESHOLD = 16;
+		private final Snake[] snakes;
+		private final Information[] informations;
+		private final Action[] actions;
+		private final GridView view;
+		private final int from;
+		private final int to;
+		/**
+		 * Creates a task for the snakes between from and to.
+		 * @param snakes snakes of the tick
+		 * @param informations array for the information of each snake
+		 * @param actions array for the action of each snake
+		 * @param view the state of the map at the start of the tick
+		 * @param from first snake of the range
+		 * @param to end of the range (exclusive)
+		 */
+		DecideTask(Snake[] snakes, Information[] informations, Action[] actions, GridView view, int from, int to) {
+			this.snakes = snakes;
+			this.informations = informations;
+			this.actions = actions;
+			this.view = view;
+			this.from = from;
+			this.to = to;
+		}
+		@Override
+		protected void compute() {
+			if(to-from<=THRESHOLD) {
+				PathFinder finder = profiler==null ? workerPathFinders.get() : profiledWorkerPathFinders.get();
+				for(int i=from;i<to;i++) {
+					long start = startPhase();
+					createInformationForSnake(informations[i], snakes[i], view, finder);
+					start = endPhase(TickPhase.INFORMATION, start);
+					actions[i]=snakes[i].chooseAction(informations[i]);
+					endPhase(TickPhase.CHOOSE_ACTION, start);
+				}
+				return;
+			}
+			int middle = (from+to)>>>1;
+			invokeAll(new DecideTask(snakes, informations, actions, view, from, middle),
+					new DecideTask(snakes, informations, actions, view, middle, to));
+		}
+	}
+	/**
+	 * Fork-join task that runs one phase of SHARDED mode for a range of shards, every shard on one worker.
+	 */
+	private class ShardTask extends RecursiveAction{
+		private static final long serialVersionUID = 1L;
+		private final GridView view;
+		private final boolean decide;
+		private final int from;
+		private final int to;
+		/**
+		 * Creates a task for the shards between from and to.
+		 * @param view the state of the map at the start of the tick
+		 * @param decide true for choosing actions, false for executing the moves inside the stripes
+		 * @param from first shard of the range
+		 * @param to end of the range (exclusive)
+		 */
+		ShardTask(GridView view, boolean decide, int from, int to) {
+			this.view = view;
+			this.decide = decide;
+			this.from = from;
+			this.to = to;
+		}
+		@Override
+		protected void compute() {
+			if(to-from==1) {
+				if(decide) {
+					decideInShard(shards[from], view);
+				}else {
+					moveInShard(shards[from]);
+				}
+				return;
+			}
+			int middle = (from+to)>>>1;
+			invokeAll(new ShardTask(view, decide, from, middle), new ShardTask(view, decide, middle, to));
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package snakesimulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+/**
+ * Flight recorder event of one step of a world.
+ *
+ */
+@Name("snakesimulator.Tick")
+@Label("Tick")
+@Category("Snake Simulator")
+@Description("One step of the world")
+@StackTrace(false)
+class TickEvent extends Event{
+	@Label("Tick")
+	long tick;
+	@Label("Tick Mode")
+	String tickMode;
+	@Label("Snakes")
+	int snakes;
+	@Label("Foods")
+	int foods;
+	@Label("Changed Cells")
+	int changedCells;
+}
@@ -0,0 +1,9 @@
+package snakesimulator;
+/**
+ * Enum representing how snakes see the world during a tick.
+ * SEQUENTIAL: every snake sees the moves of the snakes processed before it in the same tick.
+ * SYNCHRONOUS: every snake sees the world as it was at the start of the tick, the actions are executed after all snakes have chosen.
+ * PARALLEL: like SYNCHRONOUS, but all snakes choose their actions at the same time on a fork-join pool, with the same result.
+ * SHARDED: like PARALLEL, but the world is split to horizontal stripes and each stripe is processed by one worker.
+ */
+public enum TickMode {SEQUENTIAL,SYNCHRONOUS,PARALLEL,SHARDED}
@@ -0,0 +1,13 @@
+package snakesimulator;
+/**
+ * Enum representing the phases of a tick measured by a TickProfiler.
+ * TICK: a whole step of the world.
+ * SNAPSHOT: copying the snakes and the map the snakes see at the start of the tick.
+ * INFORMATION: preparing the information of a snake.
+ * CHOOSE_ACTION: a snake choosing its action, including the paths it generates.
+ * GENERATE_PATH: one search of a path finder, or computing the distance field again.
+ * APPLY_ACTION: executing the action of a snake on the map, including the food placed after an eat.
+ * FOOD_SPAWN: placing a new food.
+ * REDRAW: drawing cells to the panel.
+ */
+public enum TickPhase {TICK,SNAPSHOT,INFORMATION,CHOOSE_ACTION,GENERATE_PATH,APPLY_ACTION,FOOD_SPAWN,REDRAW}
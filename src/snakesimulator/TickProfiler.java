@@ -0,0 +1,83 @@
+package snakesimulator;
+
+import java.io.PrintStream;
+/**
+ * Class collecting the durations of the phases of ticks in histograms.
+ * A world measures its ticks only while it has a profiler, so a world without one pays nothing.
+ * Measuring a phase costs two reads of System.nanoTime() and a few atomic increments,
+ * the phases of PARALLEL and SHARDED mode are recorded from the worker threads.
+ * The histograms can be read at any time, also while the world is running on another thread.
+ *
+ */
+public class TickProfiler {
+	private final Histogram[] histograms = new Histogram[TickPhase.values().length];
+	private final Histogram expandedNodes = new Histogram();
+	/**
+	 * Creates a profiler with empty histograms.
+	 */
+	public TickProfiler() {
+		for(int i=0;i<histograms.length;i++) {
+			histograms[i] = new Histogram();
+		}
+	}
+	/**
+	 * Returns the histogram of the durations of a phase.
+	 * @param phase the phase
+	 * @return histogram of durations in nanoseconds
+	 */
+	public Histogram getHistogram(TickPhase phase) {
+		return histograms[phase.ordinal()];
+	}
+	/**
+	 * Returns the histogram of the number of cells expanded by the path searches.
+	 * @return histogram with one value for every search
+	 */
+	public Histogram getExpandedNodes() {
+		return expandedNodes;
+	}
+	/**
+	 * Records the duration of a phase which ends now.
+	 * @param phase the phase
+	 * @param startNanos the value of System.nanoTime() when the phase started
+	 * @return the value of System.nanoTime() at the end of the phase, which can be the start of the next phase
+	 */
+	long record(TickPhase phase, long startNanos) {
+		long now = System.nanoTime();
+		histograms[phase.ordinal()].record(now-startNanos);
+		return now;
+	}
+	/**
+	 * Removes all recorded values.
+	 */
+	public void reset() {
+		for(Histogram histogram : histograms) {
+			histogram.reset();
+		}
+		expandedNodes.reset();
+	}
+	/**
+	 * Prints a table with the count, the mean and the percentiles of every phase in microseconds.
+	 * @param out the stream to print to
+	 */
+	public void dump(PrintStream out) {
+		out.printf("%-14s %10s %10s %10s %10s %10s %10s %12s%n",
+				"phase", "count", "mean us", "p50 us", "p99 us", "p99.9 us", "max us", "total ms");
+		for(TickPhase phase : TickPhase.values()) {
+			Histogram histogram = getHistogram(phase);
+			out.printf("%-14s %10d %10.2f %10.2f %10.2f %10.2f %10.2f %12.1f%n",
+					phase, histogram.getCount(), histogram.getMean()/1e3,
+					histogram.getValueAtPercentile(50)/1e3, histogram.getValueAtPercentile(99)/1e3,
+					histogram.getValueAtPercentile(99.9)/1e3, histogram.getMax()/1e3, histogram.getSum()/1e6);
+		}
+		out.printf("%-14s %10d %10.1f %10d %10d %10d %10d%n",
+				"expanded nodes", expandedNodes.getCount(), expandedNodes.getMean(),
+				expandedNodes.getValueAtPercentile(50), expandedNodes.getValueAtPercentile(99),
+				expandedNodes.getValueAtPercentile(99.9), expandedNodes.getMax());
+	}
+	/**
+	 * Makes the profiler print its table to the standard output when the JVM shuts down.
+	 */
+	public void dumpOnShutdown() {
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.out), "profiler dump"));
+	}
+}
@@ -0,0 +1,60 @@
+package snakesimulator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+/**
+ * Class handing objects from one writer thread to one reader thread without locks.
+ * There are three objects: the writer fills the back object, the reader uses the front object and the middle one
+ * is the latest published object. Publishing and taking swap an object with the middle one in one atomic step,
+ * so neither thread ever waits and the reader always gets the latest complete object.
+ * @param <T> type of the exchanged objects
+ *
+ */
+class TripleBuffer<T> {
+	private static final int FRESH = 4;
+	private static final int INDEX = 3;
+	private final T[] items;
+	private final AtomicInteger middle = new AtomicInteger(2);
+	private int back=0;
+	private int front=1;
+	/**
+	 * Creates a triple buffer with three objects.
+	 * @param first the first back object
+	 * @param second the first front object
+	 * @param third the first middle object
+	 */
+	@SuppressWarnings("unchecked")
+	TripleBuffer(T first, T second, T third) {
+		items = (T[])new Object[] {first, second, third};
+	}
+	/**
+	 * Returns the object the writer fills, only the writer thread may call this.
+	 * @return the back object
+	 */
+	T getBack() {
+		return items[back];
+	}
+	/**
+	 * Publishes the back object and gives the writer the old middle object as its new back object.
+	 * Only the writer thread may call this.
+	 */
+	void publish() {
+		back = middle.getAndSet(back|FRESH)&INDEX;
+	}
+	/**
+	 * Checks the reader has taken the last published object.
+	 * @return true if no published object is waiting for the reader
+	 */
+	boolean isTaken() {
+		return (middle.get()&FRESH)==0;
+	}
+	/**
+	 * Returns the latest published object, only the reader thread may call this.
+	 * @return the latest published object, or the object returned last time if nothing was published since
+	 */
+	T take() {
+		if((middle.get()&FRESH)!=0) {
+			front = middle.getAndSet(front)&INDEX;
+		}
+		return items[front];
+	}
+}
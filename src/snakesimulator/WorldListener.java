@@ -0,0 +1,44 @@
+package snakesimulator;
+
+import elements.Food;
+import elements.Segment;
+import elements.Snake;
+/**
+ * Interface for objects which want to be notified about the changes in a SnakeWorld.
+ * Renderers implement this interface, the world itself never depends on any renderer.
+ * A renderer drawing from the cell types only needs cellsChanged(...), the other methods do nothing by default.
+ *
+ */
+public interface WorldListener {
+	/**
+	 * Called when a new snake is added to the world.
+	 * @param snake the added snake
+	 */
+	public default void snakeAdded(Snake snake) {
+	}
+	/**
+	 * Called when a snake gets a new segment.
+	 * @param segment the new segment
+	 */
+	public default void segmentAdded(Segment segment) {
+	}
+	/**
+	 * Called when a new food is added to the world.
+	 * @param food the added food
+	 */
+	public default void foodAdded(Food food) {
+	}
+	/**
+	 * Called when a food is eaten and removed from the world.
+	 * @param food the removed food
+	 */
+	public default void foodRemoved(Food food) {
+	}
+	/**
+	 * Called at the end of every tick with the cells changed in the tick.
+	 * Changes made between two ticks, like the first snake and food, come with the next tick.
+	 * The list is cleared after this call, so it must not be kept.
+	 * @param changes the changed cells and their new types
+	 */
+	public void cellsChanged(CellChanges changes);
+}
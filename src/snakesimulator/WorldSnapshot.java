@@ -0,0 +1,86 @@
+package snakesimulator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+/**
+ * Class saving worlds to binary snapshot files and loading them.
+ * The files are written and read through memory mapped windows, so a large world is saved about as fast as its
+ * memory can be copied. A snapshot is written to a new file in the directory of the target, which replaces the target
+ * only when it is complete, so a failed save keeps the last snapshot. A loaded world continues exactly like the saved one would have: it has the same grid, snakes
+ * with their cached paths and random number generators, foods and random state, in the same orders.
+ * Listeners, profilers, path finders and thread pools are not saved, a loaded world must be given the same path finder
+ * as the saved one to continue the same way. Setting them after loading keeps the snakes in their shards, and a profiler
+ * only wraps the path finders, so neither changes how the world continues.
+ *
+ */
+public final class WorldSnapshot {
+	private static final int MAGIC = 0x534E4B53;
+	private static final int VERSION = 2;
+
+	private WorldSnapshot() {
+	}
+	/**
+	 * Saves a world to a file, the world must not be stepped while it is saved.
+	 * The snapshot is counted first, so its file is mapped with the right length, then it is written to a temporary file
+	 * which is moved over the file at once.
+	 * @param world the world
+	 * @param file the file, it is replaced if it exists
+	 * @throws IOException if the file can not be written
+	 */
+	public static void save(SnakeWorld world, Path file) throws IOException {
+		MappedOutput counter = new MappedOutput();
+		write(world, counter);
+		Path directory = file.toAbsolutePath().getParent();
+		Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+		try {
+			try(MappedOutput out = new MappedOutput(temp, counter.size())) {
+				write(world, out);
+			}
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		}finally {
+			// Only left if the save failed
+			Files.deleteIfExists(temp);
+		}
+	}
+	/**
+	 * Writes the header and the state of a world.
+	 * @param world the world
+	 * @param out the output
+	 * @throws IOException if the output can not be written
+	 */
+	private static void write(SnakeWorld world, MappedOutput out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(world.getGridWidth());
+		out.writeInt(world.getGridHeight());
+		out.writeLong(world.getRandom().getState());
+		world.writeState(out);
+	}
+	/**
+	 * Loads a world from a file written by save(...).
+	 * @param file the file
+	 * @return the loaded world
+	 * @throws IOException if the file can not be read or is not a snapshot
+	 */
+	public static SnakeWorld load(Path file) throws IOException {
+		try(MappedInput in = new MappedInput(file)) {
+			if(in.readInt()!=MAGIC) {
+				throw new IOException(file+" is not a world snapshot");
+			}
+			int version = in.readInt();
+			if(version!=VERSION) {
+				throw new IOException("Unsupported snapshot version "+version);
+			}
+			int gridWidth = in.readInt();
+			int gridHeight = in.readInt();
+			if(gridWidth<=0 || gridHeight<=0) {
+				throw new IOException("Invalid grid size in the snapshot");
+			}
+			SnakeWorld world = new SnakeWorld(gridWidth, gridHeight, in.readLong());
+			world.readState(in);
+			return world;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package snakesimulator;
+/**
+ * Class representing the counters of a world as they were at the end of the last tick.
+ * The world writes them once per tick, other threads can read them at any time without locking the world.
+ *
+ */
+public class WorldStats {
+	private final int cellCount;
+	private volatile long tickCount;
+	private volatile int snakeCount;
+	private volatile int foodCount;
+	private volatile int freeCellCount;
+	private volatile long replans;
+	private volatile long foodsEaten;
+	/**
+	 * Creates the counters of a world.
+	 * @param cellCount number of cells in the grid
+	 */
+	WorldStats(int cellCount) {
+		this.cellCount = cellCount;
+		this.freeCellCount = cellCount;
+	}
+	/**
+	 * Publishes the counters at the end of a tick, called only by the thread stepping the world.
+	 * @param tickCount number of executed ticks
+	 * @param snakeCount number of snakes
+	 * @param foodCount number of foods
+	 * @param freeCellCount number of empty cells
+	 * @param replans number of paths generated and distance fields computed since the world was created
+	 * @param foodsEaten number of foods eaten since the world was created
+	 */
+	void publish(long tickCount, int snakeCount, int foodCount, int freeCellCount, long replans, long foodsEaten) {
+		this.snakeCount = snakeCount;
+		this.foodCount = foodCount;
+		this.freeCellCount = freeCellCount;
+		this.replans = replans;
+		this.foodsEaten = foodsEaten;
+		this.tickCount = tickCount;
+	}
+	/**
+	 * Getter for the number of executed ticks.
+	 * @return number of ticks
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+	/**
+	 * Getter for the number of snakes.
+	 * @return number of snakes
+	 */
+	public int getSnakeCount() {
+		return snakeCount;
+	}
+	/**
+	 * Getter for the number of foods.
+	 * @return number of foods
+	 */
+	public int getFoodCount() {
+		return foodCount;
+	}
+	/**
+	 * Getter for the number of segments of all snakes, which is the number of cells which are neither empty nor food.
+	 * @return number of segments
+	 */
+	public int getTotalSegments() {
+		return cellCount-freeCellCount-foodCount;
+	}
+	/**
+	 * Getter for the ratio of the cells taken by snakes and foods.
+	 * @return ratio between 0 and 1
+	 */
+	public double getFillRatio() {
+		return 1-(double)freeCellCount/cellCount;
+	}
+	/**
+	 * Getter for the number of replans.
+	 * @return number of paths generated and distance fields computed since the world was created
+	 */
+	public long getReplans() {
+		return replans;
+	}
+	/**
+	 * Getter for the number of eaten foods.
+	 * @return number of foods eaten since the world was created
+	 */
+	public long getFoodsEaten() {
+		return foodsEaten;
+	}
+}
@@ -3,11 +3,17 @@ package ui;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
 
 
 /**
  * A drawable panel structured as a grid.
  * Provides some drawing methods suitable for pixel-like game entities.
+ * The drawing methods write packed ARGB values straight into the pixels of the image instead of creating a Graphics,
+ * and the white background with the gridlines is rendered once and copied into the image when it is cleared.
+ * The panel remembers the regions drawn since the last repaintDirty() in tiles of TILE_SQUARES grid squares, and
+ * repaints the drawn part of every tile, so changes far from each other do not repaint everything between them.
  *.
  */
 public class GridPanel extends JPanel {
@@ -16,10 +22,28 @@ public class GridPanel extends JPanel {
 	 * 
 	 */
 	private static final long serialVersionUID = 1L;
+    private static final int WHITE = Color.WHITE.getRGB();
+    private static final int GRID_COLOR = Color.LIGHT_GRAY.getRGB();
+    // Width and height of a dirty tile in grid squares
+    private static final int TILE_SQUARES = 16;
+    // Above this number of dirty tiles the bounds of all of them are repainted at once
+    private static final int MAX_DIRTY_TILES = 32;
 	private final int gamePanelWidth;
     private final int gamePanelHeight;
 
     private BufferedImage gameImage;
+    private final int[] pixels;
+    private final int[] background;
+    private final int tileSize;
+    private final int tilesX;
+    // Bounds of the drawn region of every tile in pixels, tileMaxX is -1 for a clean tile
+    private final int[] tileMinX;
+    private final int[] tileMinY;
+    private final int[] tileMaxX;
+    private final int[] tileMaxY;
+    private final int[] dirtyTiles;
+    private int dirtyTileCount = 0;
+    private boolean allDirty = false;
 
     private int gridSquareSize;
 
@@ -34,7 +58,24 @@ public class GridPanel extends JPanel {
         gamePanelWidth = gridWidth * gridSquareSize;
         gamePanelHeight = gridHeight * gridSquareSize;
         gameImage = new BufferedImage(gamePanelWidth, gamePanelHeight, BufferedImage.TYPE_INT_ARGB);
+        pixels = ((DataBufferInt) gameImage.getRaster().getDataBuffer()).getData();
+        background = new int[pixels.length];
+        for (int y = 0; y < gamePanelHeight; y++) {
+            for (int x = 0; x < gamePanelWidth; x++) {
+                background[y * gamePanelWidth + x] = (x % gridSquareSize == 0 || y % gridSquareSize == 0) ? GRID_COLOR : WHITE;
+            }
+        }
+        System.arraycopy(background, 0, pixels, 0, pixels.length);
         setBackground(Color.WHITE);
+        tileSize = TILE_SQUARES * gridSquareSize;
+        tilesX = (gridWidth + TILE_SQUARES - 1) / TILE_SQUARES;
+        int tiles = tilesX * ((gridHeight + TILE_SQUARES - 1) / TILE_SQUARES);
+        tileMinX = new int[tiles];
+        tileMinY = new int[tiles];
+        tileMaxX = new int[tiles];
+        tileMaxY = new int[tiles];
+        Arrays.fill(tileMaxX, -1);
+        dirtyTiles = new int[tiles];
     }
 
     @Override
@@ -54,10 +95,57 @@ public class GridPanel extends JPanel {
      * Repaints the panel to white
      */
     public void clearCanvas() {
-        Graphics g = gameImage.getGraphics();
-        g.setColor(Color.WHITE);
-        g.fillRect(0, 0, gameImage.getWidth(), getHeight());
-        g.dispose();
+        Arrays.fill(pixels, WHITE);
+        allDirty = true;
+    }
+
+    /**
+     * Repaints the panel to white with gridlines, by copying the pre-rendered background
+     */
+    public void drawBackground() {
+        System.arraycopy(background, 0, pixels, 0, pixels.length);
+        allDirty = true;
+    }
+
+    /**
+     * Repaints the regions drawn since the last call.
+     * On the event dispatch thread every dirty tile is painted at once, because the RepaintManager would merge
+     * separate repaint requests of the panel into their bounds.
+     */
+    public void repaintDirty() {
+        if (allDirty) {
+            repaint();
+        } else if (dirtyTileCount > MAX_DIRTY_TILES) {
+            int minX = Integer.MAX_VALUE;
+            int minY = Integer.MAX_VALUE;
+            int maxX = -1;
+            int maxY = -1;
+            for (int i = 0; i < dirtyTileCount; i++) {
+                int tile = dirtyTiles[i];
+                minX = Math.min(minX, tileMinX[tile]);
+                minY = Math.min(minY, tileMinY[tile]);
+                maxX = Math.max(maxX, tileMaxX[tile]);
+                maxY = Math.max(maxY, tileMaxY[tile]);
+            }
+            repaint(minX, minY, maxX - minX, maxY - minY);
+        } else {
+            boolean immediately = SwingUtilities.isEventDispatchThread() && isShowing();
+            for (int i = 0; i < dirtyTileCount; i++) {
+                int tile = dirtyTiles[i];
+                int x = tileMinX[tile];
+                int y = tileMinY[tile];
+                if (immediately) {
+                    paintImmediately(x, y, tileMaxX[tile] - x, tileMaxY[tile] - y);
+                } else {
+                    repaint(x, y, tileMaxX[tile] - x, tileMaxY[tile] - y);
+                }
+            }
+        }
+        for (int i = 0; i < dirtyTileCount; i++) {
+            tileMaxX[dirtyTiles[i]] = -1;
+        }
+        dirtyTileCount = 0;
+        allDirty = false;
     }
 
     /**
@@ -80,39 +168,57 @@ public class GridPanel extends JPanel {
      * Draws gridlines
      */
     public void drawGrid() {
-        Graphics g = gameImage.getGraphics();
-        g.setColor(Color.LIGHT_GRAY);
-
         // vertical grid
-        for (int i = 0; i < gamePanelWidth / gridSquareSize; i++) {
-            int lineX = i * gridSquareSize;
-            g.drawLine(lineX, 0, lineX, gamePanelHeight);
+        for (int lineX = 0; lineX < gamePanelWidth; lineX += gridSquareSize) {
+            for (int y = 0; y < gamePanelHeight; y++) {
+                pixels[y * gamePanelWidth + lineX] = GRID_COLOR;
+            }
         }
         // horizontal grid
-        for (int i = 0; i < gamePanelHeight / gridSquareSize; i++) {
-            int lineY = i * (gridSquareSize);
-            g.drawLine(0, lineY, gamePanelWidth, lineY);
+        for (int lineY = 0; lineY < gamePanelHeight; lineY += gridSquareSize) {
+            Arrays.fill(pixels, lineY * gamePanelWidth, (lineY + 1) * gamePanelWidth, GRID_COLOR);
         }
-        g.dispose();
+        allDirty = true;
     }
 
     /**
-     * Draws a filled square in the given grid position
+     * Erases a grid position back to the background
      * @param gridX x position
      * @param gridY y position
-     * @param color fill color of the square
      */
-    public void drawSquare(int gridX, int gridY, Color color) {
+    public void eraseSquare(int gridX, int gridY) {
         if (gridX < 0 || gridY < 0 ||
                 gridX >= gamePanelWidth / gridSquareSize || gridY >= gamePanelHeight / gridSquareSize) {
             return;
         }
-        Graphics g = gameImage.getGraphics();
-        g.setColor(color);
         int x = gridX * gridSquareSize + 1;
         int y = gridY * gridSquareSize + 1;
-        g.fillRect(x, y, gridSquareSize - 1, gridSquareSize - 1);
-        g.dispose();
+        int size = gridSquareSize - 1;
+        for (int row = y; row < y + size; row++) {
+            int start = row * gamePanelWidth + x;
+            System.arraycopy(background, start, pixels, start, size);
+        }
+        markDirty(x, y, size, size);
+    }
+
+    /**
+     * Draws a filled square in the given grid position
+     * @param gridX x position
+     * @param gridY y position
+     * @param color fill color of the square
+     */
+    public void drawSquare(int gridX, int gridY, Color color) {
+        drawSquare(gridX, gridY, color.getRGB());
+    }
+
+    /**
+     * Draws a filled square in the given grid position
+     * @param gridX x position
+     * @param gridY y position
+     * @param argb fill color of the square as a packed ARGB value
+     */
+    public void drawSquare(int gridX, int gridY, int argb) {
+        fillSquare(gridX, gridY, 1, argb);
     }
 
     /**
@@ -122,16 +228,66 @@ public class GridPanel extends JPanel {
      * @param color fill color of the square
      */
     public void drawSmallSquare(int gridX, int gridY, Color color) {
+        drawSmallSquare(gridX, gridY, color.getRGB());
+    }
+
+    /**
+     * Draws a small filled square in the given grid position
+     * @param gridX x position
+     * @param gridY y position
+     * @param argb fill color of the square as a packed ARGB value
+     */
+    public void drawSmallSquare(int gridX, int gridY, int argb) {
+        fillSquare(gridX, gridY, 3, argb);
+    }
+
+    /**
+     * Writes a filled square into the pixels of a grid position
+     * @param gridX x position
+     * @param gridY y position
+     * @param inset distance of the square to the gridlines around the grid square
+     * @param argb fill color of the square as a packed ARGB value
+     */
+    private void fillSquare(int gridX, int gridY, int inset, int argb) {
         if (gridX < 0 || gridY < 0 ||
                 gridX >= gamePanelWidth / gridSquareSize || gridY >= gamePanelHeight / gridSquareSize) {
             return;
         }
-        Graphics g = gameImage.getGraphics();
-        g.setColor(color);
-        int x = gridX * gridSquareSize + 3;
-        int y = gridY * gridSquareSize + 3;
-        g.fillRect(x, y, gridSquareSize - 5, gridSquareSize - 5);
-        g.dispose();
+        int x = gridX * gridSquareSize + inset;
+        int y = gridY * gridSquareSize + inset;
+        int size = gridSquareSize - 2 * inset + 1;
+        for (int row = y; row < y + size; row++) {
+            int start = row * gamePanelWidth + x;
+            Arrays.fill(pixels, start, start + size, argb);
+        }
+        markDirty(x, y, size, size);
+    }
+
+    /**
+     * Adds a region inside one grid square to the dirty region of its tile, which will be repainted by repaintDirty()
+     * @param x x coordinate of the region in pixels
+     * @param y y coordinate of the region in pixels
+     * @param width width of the region in pixels
+     * @param height height of the region in pixels
+     */
+    private void markDirty(int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        // With tiny grid squares a region may start on the next grid square
+        int tile = (Math.min(y, gamePanelHeight - 1) / tileSize) * tilesX + Math.min(x, gamePanelWidth - 1) / tileSize;
+        if (tileMaxX[tile] < 0) {
+            dirtyTiles[dirtyTileCount++] = tile;
+            tileMinX[tile] = x;
+            tileMinY[tile] = y;
+            tileMaxX[tile] = x + width;
+            tileMaxY[tile] = y + height;
+            return;
+        }
+        tileMinX[tile] = Math.min(tileMinX[tile], x);
+        tileMinY[tile] = Math.min(tileMinY[tile], y);
+        tileMaxX[tile] = Math.max(tileMaxX[tile], x + width);
+        tileMaxY[tile] = Math.max(tileMaxY[tile], y + height);
     }
 
 }